@@ -0,0 +1,91 @@
+package bench;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import game.*;
+
+// The operations of the game core that every search performs per node
+// Each benchmark runs on the same half-filled, unfinished position
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    @Param({ "5", "7", "9", "11", "15" })
+    public int size;
+
+    private GameImpl game;
+    private PersistentGameImpl persistent;
+    private Grid grid;
+    private Move move;
+    private int[] buffer;
+
+    @Setup
+    public void setUp() {
+        game = Positions.midgame(size, 0.5, 42);
+        persistent = Positions.midgame(new PersistentGameImpl(size), 0.5, 42);
+        grid = game.getGrid();
+        move = Positions.emptyCell(game, 7);
+        buffer = new int[size * size];
+    }
+
+    // makeMove cannot be repeated on its own, so it is paired with undoMove
+    // to leave the position unchanged for the next call
+    @Benchmark
+    public long makeMove() {
+        game.makeMove(move);
+        long hash = game.hash();
+        game.undoMove();
+        return hash;
+    }
+
+    @Benchmark
+    public Game copy() {
+        return game.copy();
+    }
+
+    // The same two operations on the structure-sharing implementation
+    @Benchmark
+    public long persistentMakeMove() {
+        persistent.makeMove(move);
+        long hash = persistent.hash();
+        persistent.undoMove();
+        return hash;
+    }
+
+    @Benchmark
+    public Game persistentCopy() {
+        return persistent.copy();
+    }
+
+    @Benchmark
+    public Collection<Move> getMoves() {
+        return game.getMoves();
+    }
+
+    @Benchmark
+    public int getMovesIntoBuffer() {
+        return game.getMoves(buffer);
+    }
+
+    @Benchmark
+    public void isOverWinner(Blackhole blackhole) {
+        blackhole.consume(game.isOver());
+        blackhole.consume(game.winner());
+    }
+
+    // The full win check with PathFinder for both colours in both directions
+    @Benchmark
+    public void pathFinder(Blackhole blackhole) {
+        for (PieceColour player : new PieceColour[] { PieceColour.WHITE, PieceColour.BLACK }) {
+            blackhole.consume(PathFinder.topToBottom(grid, player));
+            blackhole.consume(PathFinder.leftToRight(grid, player));
+        }
+    }
+}
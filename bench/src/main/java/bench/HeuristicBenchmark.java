@@ -0,0 +1,34 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import ai.*;
+import game.*;
+
+// Scoring one leaf position, as Minimax does at depth 0
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeuristicBenchmark {
+    @Param({ "5", "7", "9", "11", "15" })
+    public int size;
+
+    private GameImpl game;
+    private Heuristic heuristic;
+
+    @Setup
+    public void setUp() {
+        game = Positions.midgame(size, 0.5, 42);
+        heuristic = new MinPiecesHeuristic();
+    }
+
+    @Benchmark
+    public int minPiecesScore() {
+        return heuristic.score(game);
+    }
+}
@@ -0,0 +1,41 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import game.*;
+
+// Reproducible positions for the benchmarks
+final class Positions {
+    private Positions() {
+    }
+
+    // Plays random moves from the empty board until the given fraction of the
+    // cells is filled, skipping any move that would end the game, so the
+    // result is an unfinished position with stones of both colours
+    static GameImpl midgame(int size, double fill, long seed) {
+        return midgame(new GameImpl(size), fill, seed);
+    }
+
+    // The same position played on the given empty game
+    static <G extends Game> G midgame(G game, double fill, long seed) {
+        int size = game.getSize();
+        Random random = new Random(seed);
+        int target = (int) (size * size * fill);
+        for (int played = 0; played < target; ) {
+            List<Move> moves = new ArrayList<>(game.getMoves());
+            Move move = moves.get(random.nextInt(moves.size()));
+            game.makeMove(move);
+            if (game.isOver()) game.undoMove();
+            else played++;
+        }
+        return game;
+    }
+
+    // An empty cell of game, chosen reproducibly
+    static Move emptyCell(Game game, long seed) {
+        List<Move> moves = new ArrayList<>(game.getMoves());
+        return moves.get(new Random(seed).nextInt(moves.size()));
+    }
+}
@@ -0,0 +1,63 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import ai.*;
+import game.*;
+
+// One complete Minimax move choice from a fixed position
+// The search is single-threaded with a fixed random seed, and every call
+// starts from a cleared transposition table and a fresh Minimax, so each
+// invocation does exactly the same work
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({ "5", "7", "9", "11", "15" })
+    public int size;
+
+    @Param({ "3" })
+    public int depth;
+
+    // Fraction of the cells filled in the position searched
+    @Param({ "0.3" })
+    public double fill;
+
+    // Whether dead cells are removed from the move lists
+    @Param({ "true", "false" })
+    public boolean moveFilter;
+
+    // Compare with -p algorithm=ALPHA_BETA,PVS,PVS_LMR
+    @Param({ "ALPHA_BETA" })
+    public Minimax.Algorithm algorithm;
+
+    private GameImpl game;
+    private TranspositionTable table;
+    private Minimax minimax;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        game = Positions.midgame(size, fill, 42);
+        table = new TranspositionTable(1 << 18);
+    }
+
+    // Runs before every call, which is cheap next to a whole search
+    @Setup(Level.Invocation)
+    public void setUpSearch() {
+        table.clear();
+        minimax = new Minimax(depth, new MinPiecesHeuristic(), table);
+        minimax.setRandomSeed(1);
+        minimax.setMoveFilter(moveFilter);
+        minimax.setAlgorithm(algorithm);
+    }
+
+    @Benchmark
+    public Move minimax() {
+        return minimax.getCurrentPlayerMove(game);
+    }
+}
@@ -5,4 +5,10 @@ import game.*;
 public interface AI {
     // Estimates the best move for the current player
     Move getCurrentPlayerMove(Game game);
-}
\ No newline at end of file
+
+    // Statistics of the last call to getCurrentPlayerMove
+    // An AI that does not collect statistics reports all zeros
+    default SearchStats getSearchStats() {
+        return new SearchStats();
+    }
+}
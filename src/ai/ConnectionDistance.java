@@ -0,0 +1,111 @@
+package ai;
+
+import java.util.Arrays;
+
+import game.*;
+
+// Computes how many more stones a player needs to connect two opposite edges,
+// assuming the other player never places anything.
+// Cells holding the player's own stones cost 0, empty cells cost 1 and the
+// other player's stones cannot be crossed. Because every cost is 0 or 1 the
+// shortest path is found with a 0-1 breadth-first search on a deque instead
+// of Dijkstra's algorithm.
+// All buffers are allocated once per board size, so a computation allocates
+// nothing. An instance is not thread safe; use one per thread.
+class ConnectionDistance {
+    // Cell contents in the board snapshot
+    static final int EMPTY = 0, WHITE = 1, BLACK = 2;
+
+    private final int size;
+    private final int cells;
+
+    // Snapshot of the board, one entry per flat cell index
+    private final int[] board;
+
+    // Tentative distances, valid only where seen[cell] == stamp
+    private final int[] distance;
+    private final int[] seen;
+    private int stamp;
+
+    // Circular deque of cell indices; its length is a power of two
+    private final int[] deque;
+    private final int mask;
+    private int head, tail;
+
+    ConnectionDistance(int size) {
+        this.size = size;
+        this.cells = size * size;
+        this.board = new int[cells];
+        this.distance = new int[cells];
+        this.seen = new int[cells];
+        // A cell is pushed once as a start and at most once per improving neighbour
+        int capacity = Integer.highestOneBit(5 * cells) << 1;
+        this.deque = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    // The side length of the board this instance was built for
+    int size() {
+        return size;
+    }
+
+    // Copies the live board of game into the snapshot without calling getGrid()
+    void load(Game game) {
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                PieceColour piece = game.getPiece(r, c);
+                board[r * size + c] = piece == PieceColour.WHITE ? WHITE
+                        : piece == PieceColour.BLACK ? BLACK : EMPTY;
+            }
+        }
+    }
+
+    // Returns the number of empty cells on the cheapest path of the given colour
+    // from the top row to the bottom row (vertical) or from the left column to
+    // the right column (!vertical), or size * size if there is no such path
+    int shortest(PieceColour player, boolean vertical) {
+        int own = player == PieceColour.WHITE ? WHITE : BLACK;
+        head = 0;
+        tail = 0;
+        if (++stamp == 0) {
+            Arrays.fill(seen, 0);
+            stamp = 1;
+        }
+
+        for (int i = 0; i < size; i++)
+            relax(vertical ? i : i * size, 0, own);
+
+        while (head != tail) {
+            int cell = deque[head];
+            head = (head + 1) & mask;
+            int d = distance[cell];
+            int r = cell / size, c = cell % size;
+            // Distances leave the deque in non-decreasing order, so the first
+            // cell popped on the far edge is at the shortest distance
+            if (vertical ? r == size - 1 : c == size - 1) return d;
+            if (r > 0) relax(cell - size, d, own);
+            if (r < size - 1) relax(cell + size, d, own);
+            if (c > 0) relax(cell - 1, d, own);
+            if (c < size - 1) relax(cell + 1, d, own);
+        }
+        return cells;
+    }
+
+    // Offers a path of length d + cost(cell) to cell
+    // Free cells go to the front of the deque and empty cells to the back
+    private void relax(int cell, int d, int own) {
+        int piece = board[cell];
+        if (piece != EMPTY && piece != own) return;
+        int nd = piece == own ? d : d + 1;
+        if (seen[cell] == stamp && distance[cell] <= nd) return;
+        seen[cell] = stamp;
+        distance[cell] = nd;
+        if (nd == d) {
+            head = (head - 1) & mask;
+            deque[head] = cell;
+        } else {
+            deque[tail] = cell;
+            tail = (tail + 1) & mask;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package ai;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import game.*;
+
+// Serves a long-lived Minimax over a text protocol on stdin and stdout, so a
+// harness can play any number of games without starting a JVM for each one
+// The engine is built once: its transposition table, move ordering tables and
+// solver stay warm from one command to the next, and from one game to the
+// next. Only a change of board size clears the table.
+//
+// The protocol follows GTP (the Go Text Protocol). Each command is one line,
+// optionally starting with a numeric id; everything after a '#' is ignored.
+// A success is answered with "=[id] result" and a failure with
+// "?[id] message", each followed by a blank line. Search statistics are
+// written to stderr. Cells are written as a column letter and a row number
+// from 1, so "a1" is row 0, column 0 and "c2" is row 1, column 2. White
+// moves first.
+//
+// Commands:
+//   protocol_version, name, version, known_command C, list_commands, quit
+//   boardsize N           start a new game on an N x N board
+//   clear_board           start a new game on the same board
+//   play COLOUR CELL      play a move for the player to move
+//   genmove COLOUR        search, play and print a move for the player to move
+//   undo                  take back the last move
+//   showboard             print the board
+//   final_score           W+, B+ or 0 once the game is over
+//   time_settings MAIN BYOYOMI STONES   time control in seconds, as in GTP
+//                         (0 0 0, or a byoyomi with 0 stones, means none)
+//   time_left COLOUR SECONDS STONES     time left on a player's clock
+//
+// Usage: java ai.Engine [options]
+// Options:
+//   -size N      initial board size (default 5)
+//   -depth N     search depth, an upper bound under a time control (default 5)
+//   -threads N   search threads (default 1)
+//   -book FILE   opening book made with ai.OpeningBookGenerator
+//   -ponder      search the likely replies while waiting for the next command
+public class Engine {
+    private static final List<String> COMMANDS = Arrays.asList(
+            "protocol_version", "name", "version", "known_command", "list_commands", "quit",
+            "boardsize", "clear_board", "play", "genmove", "undo", "showboard", "final_score",
+            "time_settings", "time_left");
+
+    // Largest board whose columns can be written as one letter
+    private static final int MAX_SIZE = 26;
+
+    private final Minimax minimax;
+    private final TranspositionTable table;
+    private final Ponderer ponderer;
+    private final boolean ponder;
+    private Game game;
+
+    // Time control in milliseconds; unlimited unless time_settings says otherwise
+    private boolean timed;
+    private long byoyomiMillis;
+    private int byoyomiStones;
+    // Time left on each clock: main time, or once it has run out the time
+    // left in the current byoyomi period; and the stones left in that period
+    // (0 while in main time), indexed by colour
+    private final long[] mainLeft = new long[2];
+    private final int[] stonesLeft = new int[2];
+    // The time allowed for the last genmove, or 0 without a time control
+    private long lastBudget;
+
+    private boolean quit;
+
+    // minimax must have been built with table, which is cleared when the
+    // board size changes
+    // If ponder is true, the engine searches the likely replies after each
+    // genmove until the next command arrives
+    public Engine(Minimax minimax, TranspositionTable table, int size, boolean ponder) {
+        checkSize(size);
+        this.minimax = minimax;
+        this.table = table;
+        this.ponderer = new Ponderer(minimax);
+        this.ponder = ponder;
+        this.game = new GameImpl(size);
+    }
+
+    // The game being played
+    public Game getGame() {
+        return game;
+    }
+
+    // The time allowed for the last genmove in milliseconds, or 0 if there
+    // was no time control
+    public long getLastBudget() {
+        return lastBudget;
+    }
+
+    // True once the quit command has been executed
+    public boolean isQuit() {
+        return quit;
+    }
+
+    // Reads commands from in and answers them on out until quit or the end of input
+    public void run(BufferedReader in, PrintStream out) throws IOException {
+        String line;
+        while (!quit && (line = in.readLine()) != null) {
+            String response = execute(line);
+            if (response == null) continue;
+            out.print(response);
+            out.print("\n\n");
+            out.flush();
+        }
+        ponderer.stop();
+    }
+
+    // Executes one command line and returns the response without the blank
+    // line that ends it, or null if the line holds no command
+    public String execute(String line) {
+        int comment = line.indexOf('#');
+        if (comment >= 0) line = line.substring(0, comment);
+        String[] words = line.trim().split("\\s+");
+        if (words[0].isEmpty()) return null;
+
+        String id = "";
+        int first = 0;
+        if (Character.isDigit(words[0].charAt(0))) {
+            id = words[0];
+            first = 1;
+        }
+        if (first >= words.length) return "?" + id + " missing command";
+        String command = words[first].toLowerCase(Locale.ROOT);
+        String[] args = Arrays.copyOfRange(words, first + 1, words.length);
+
+        // Pondering ends with any command; the moves it found are kept for genmove
+        ponderer.stop();
+        try {
+            String result = dispatch(command, args);
+            return "=" + id + (result.isEmpty() ? "" : " " + result);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return "?" + id + " " + e.getMessage();
+        }
+    }
+
+    private String dispatch(String command, String[] args) {
+        switch (command) {
+            case "protocol_version":
+                return "2";
+            case "name":
+                return "TASK2005 Minimax";
+            case "version":
+                return "1.0";
+            case "known_command":
+                expectArgs(args, 1);
+                return Boolean.toString(COMMANDS.contains(args[0].toLowerCase(Locale.ROOT)));
+            case "list_commands":
+                return String.join("\n", COMMANDS);
+            case "quit":
+                quit = true;
+                return "";
+            case "boardsize": {
+                expectArgs(args, 1);
+                int size = parseInt(args[0]);
+                checkSize(size);
+                if (size != game.getSize()) table.clear();
+                game = new GameImpl(size);
+                return "";
+            }
+            case "clear_board":
+                expectArgs(args, 0);
+                game = new GameImpl(game.getSize());
+                return "";
+            case "play": {
+                expectArgs(args, 2);
+                checkTurn(parseColour(args[0]));
+                game.makeMove(parseCell(args[1]));
+                return "";
+            }
+            case "genmove":
+                expectArgs(args, 1);
+                return genmove(parseColour(args[0]));
+            case "undo":
+                expectArgs(args, 0);
+                game.undoMove();
+                return "";
+            case "showboard":
+                return "\n" + game.view();
+            case "final_score":
+                expectArgs(args, 0);
+                if (!game.isOver()) throw new IllegalStateException("game is not over");
+                return game.winner() == PieceColour.WHITE ? "W+"
+                        : game.winner() == PieceColour.BLACK ? "B+" : "0";
+            case "time_settings": {
+                expectArgs(args, 3);
+                long main = parseInt(args[0]) * 1000L;
+                long byoyomi = parseInt(args[1]) * 1000L;
+                int stones = parseInt(args[2]);
+                timed = main > 0 || byoyomi > 0 && stones > 0;
+                byoyomiMillis = byoyomi;
+                byoyomiStones = stones;
+                // Without main time the first byoyomi period starts at once
+                boolean byoyomiOnly = main == 0 && stones > 0;
+                Arrays.fill(mainLeft, byoyomiOnly ? byoyomi : main);
+                Arrays.fill(stonesLeft, byoyomiOnly ? stones : 0);
+                return "";
+            }
+            case "time_left": {
+                expectArgs(args, 3);
+                int colour = parseColour(args[0]) == PieceColour.WHITE ? 0 : 1;
+                mainLeft[colour] = parseInt(args[1]) * 1000L;
+                stonesLeft[colour] = parseInt(args[2]);
+                return "";
+            }
+            default:
+                throw new IllegalArgumentException("unknown command");
+        }
+    }
+
+    // Searches, plays and returns a move for the player to move
+    private String genmove(PieceColour colour) {
+        if (game.isOver()) throw new IllegalStateException("game is over");
+        checkTurn(colour);
+        int clock = colour == PieceColour.WHITE ? 0 : 1;
+        lastBudget = timed ? budget(clock) : 0;
+        minimax.setTimeLimit(lastBudget);
+
+        long start = System.nanoTime();
+        Move move = ponderer.getCurrentPlayerMove(game);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        game.makeMove(move);
+        if (timed) charge(clock, millis);
+        System.err.println("Search: " + ponderer.getSearchStats()
+                + (ponderer.wasPonderHit() ? " (pondered)" : ""));
+
+        if (ponder) ponderer.ponder(game);
+        return formatCell(move);
+    }
+
+    // The time to spend on the next move of a clock, in milliseconds
+    // Main time is spread over the moves the player is still expected to
+    // make, and a byoyomi period over its stones
+    private long budget(int clock) {
+        int size = game.getSize();
+        int empty = game.getMoves(new int[size * size]);
+        long millis;
+        if (stonesLeft[clock] > 0) {
+            millis = mainLeft[clock] / stonesLeft[clock];
+        } else {
+            millis = mainLeft[clock] / Math.max(1, (empty + 1) / 2);
+            if (byoyomiStones > 0) millis += byoyomiMillis / byoyomiStones;
+        }
+        // Keep a margin for the protocol and the last depth
+        return Math.max(1, millis * 9 / 10);
+    }
+
+    // Takes the time spent on a move off a clock, in case the controller
+    // does not send time_left
+    private void charge(int clock, long millis) {
+        if (stonesLeft[clock] > 0) {
+            mainLeft[clock] = Math.max(0, mainLeft[clock] - millis);
+            stonesLeft[clock]--;
+        } else if (mainLeft[clock] > millis || byoyomiStones == 0) {
+            mainLeft[clock] = Math.max(0, mainLeft[clock] - millis);
+            return;
+        } else {
+            // Main time ran out during this move, so the rest of the move
+            // and its stone count against the first byoyomi period
+            mainLeft[clock] = Math.max(0, byoyomiMillis - (millis - mainLeft[clock]));
+            stonesLeft[clock] = byoyomiStones - 1;
+        }
+        if (stonesLeft[clock] == 0) {
+            // The period is over; the next one starts in full
+            mainLeft[clock] = byoyomiMillis;
+            stonesLeft[clock] = byoyomiStones;
+        }
+    }
+
+    private void checkTurn(PieceColour colour) {
+        if (game.isOver()) throw new IllegalStateException("game is over");
+        if (colour != game.currentPlayer())
+            throw new IllegalArgumentException("it is " + colourName(game.currentPlayer()) + "'s turn");
+    }
+
+    private static void checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) throw new IllegalArgumentException("unacceptable size");
+    }
+
+    private static void expectArgs(String[] args, int count) {
+        if (args.length != count) throw new IllegalArgumentException("expected " + count + " arguments");
+    }
+
+    private static int parseInt(String word) {
+        try {
+            int value = Integer.parseInt(word);
+            if (value < 0) throw new IllegalArgumentException("negative number " + word);
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid number " + word);
+        }
+    }
+
+    private static PieceColour parseColour(String word) {
+        switch (word.toLowerCase(Locale.ROOT)) {
+            case "w": case "white": return PieceColour.WHITE;
+            case "b": case "black": return PieceColour.BLACK;
+            default: throw new IllegalArgumentException("invalid colour " + word);
+        }
+    }
+
+    private static String colourName(PieceColour colour) {
+        return colour == PieceColour.WHITE ? "white" : "black";
+    }
+
+    // Parses a cell such as "c2"; the move itself is checked by makeMove
+    private static Move parseCell(String word) {
+        String cell = word.toLowerCase(Locale.ROOT);
+        char column = cell.charAt(0);
+        if (cell.length() < 2 || column < 'a' || column > 'z')
+            throw new IllegalArgumentException("invalid cell " + word);
+        try {
+            return new MoveImpl(Integer.parseInt(cell.substring(1)) - 1, column - 'a');
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid cell " + word);
+        }
+    }
+
+    private static String formatCell(Move move) {
+        return (char) ('a' + move.getCol()) + Integer.toString(move.getRow() + 1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int size = 5, depth = 5, threads = 1;
+        String book = null;
+        boolean ponder = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-size": size = Integer.parseInt(args[++i]); break;
+                case "-depth": depth = Integer.parseInt(args[++i]); break;
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                case "-book": book = args[++i]; break;
+                case "-ponder": ponder = true; break;
+                default:
+                    System.err.println("Usage: java ai.Engine [-size N] [-depth N] [-threads N] "
+                            + "[-book FILE] [-ponder]");
+                    return;
+            }
+        }
+
+        TranspositionTable table = new TranspositionTable(1 << 20);
+        Minimax minimax = new Minimax(depth, new MinPiecesHeuristic(), table);
+        minimax.setThreads(threads);
+        if (book != null) minimax.setOpeningBook(OpeningBook.open(Path.of(book)));
+        Engine engine = new Engine(minimax, table, size, ponder);
+        engine.run(new BufferedReader(new InputStreamReader(System.in)), System.out);
+    }
+}
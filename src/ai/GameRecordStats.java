@@ -0,0 +1,135 @@
+package ai;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import game.*;
+
+// Summarises files of game records (see GameRecordWriter) in a single pass
+// For each board size it reports the results, the average game length, and
+// for every cell the score of white when white opened there, counting a
+// draw as half a win. Records are read through GameRecordReader, so the
+// heap used does not grow with the size of the files.
+//
+// Usage: java ai.GameRecordStats [-replay] FILE...
+// Options:
+//   -replay   replay every game through GameImpl and check its recorded result
+public class GameRecordStats {
+    // Totals for one board size
+    private static class Totals {
+        final int size;
+        long games, whiteWins, blackWins, draws, unfinished, moves;
+        // Games, white wins and draws by the cell of white's first move
+        final long[] openings, openingWhiteWins, openingDraws;
+
+        Totals(int size) {
+            this.size = size;
+            this.openings = new long[size * size];
+            this.openingWhiteWins = new long[size * size];
+            this.openingDraws = new long[size * size];
+        }
+    }
+
+    private final Map<Integer, Totals> bySize = new TreeMap<>();
+    private final boolean replay;
+    private long games;
+    private long mismatches;
+
+    // If replay is true, every game is replayed and its result checked
+    public GameRecordStats(boolean replay) {
+        this.replay = replay;
+    }
+
+    // Adds every record of file to the totals
+    public void add(Path file) throws IOException {
+        try (GameRecordReader reader = GameRecordReader.open(file)) {
+            while (reader.next()) add(reader);
+        }
+    }
+
+    // Adds the current record of reader to the totals
+    public void add(GameRecordReader reader) {
+        int size = reader.getSize();
+        Totals totals = bySize.computeIfAbsent(size, Totals::new);
+        games++;
+        PieceColour winner = reader.getWinner();
+        boolean finished = reader.isFinished();
+        int count = reader.getMoveCount();
+        totals.games++;
+        totals.moves += count;
+        if (!finished) totals.unfinished++;
+        else if (winner == PieceColour.WHITE) totals.whiteWins++;
+        else if (winner == PieceColour.BLACK) totals.blackWins++;
+        else totals.draws++;
+
+        if (finished && count > 0) {
+            int opening = reader.getMove(0);
+            totals.openings[opening]++;
+            if (winner == PieceColour.WHITE) totals.openingWhiteWins[opening]++;
+            else if (winner == PieceColour.NONE) totals.openingDraws[opening]++;
+        }
+
+        if (replay) {
+            Game game = reader.replay();
+            if (game.isOver() != finished || finished && game.winner() != winner) mismatches++;
+        }
+    }
+
+    // The number of games added so far
+    public long getGames() {
+        return games;
+    }
+
+    // The number of games whose replay did not give their recorded result
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Totals t : bySize.values()) {
+            sb.append(String.format("Size %d: %d games, white %d, black %d, draws %d, unfinished %d, "
+                            + "%.1f moves per game%n",
+                    t.size, t.games, t.whiteWins, t.blackWins, t.draws, t.unfinished,
+                    t.games == 0 ? 0.0 : (double) t.moves / t.games));
+            sb.append("White score (%) by opening cell:\n");
+            for (int r = 0; r < t.size; r++) {
+                for (int c = 0; c < t.size; c++) {
+                    int cell = r * t.size + c;
+                    long n = t.openings[cell];
+                    if (n == 0) sb.append("    -");
+                    else sb.append(String.format(" %4.0f",
+                            100.0 * (t.openingWhiteWins[cell] + 0.5 * t.openingDraws[cell]) / n));
+                }
+                sb.append('\n');
+            }
+        }
+        if (replay) sb.append("Replay mismatches: ").append(mismatches).append('\n');
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean replay = false;
+        int files = 0;
+        for (String arg : args) {
+            if (arg.equals("-replay")) replay = true;
+            else files++;
+        }
+        if (files == 0) {
+            System.out.println("Usage: java ai.GameRecordStats [-replay] FILE...");
+            return;
+        }
+
+        GameRecordStats stats = new GameRecordStats(replay);
+        long start = System.nanoTime();
+        for (String arg : args)
+            if (!arg.equals("-replay")) stats.add(Path.of(arg));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.print(stats);
+        System.out.printf("Read %d games in %.2f s (%.0f games/s)%n",
+                stats.getGames(), seconds, stats.getGames() / seconds);
+    }
+}
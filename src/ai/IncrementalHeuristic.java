@@ -0,0 +1,26 @@
+package ai;
+
+import game.*;
+
+// A Heuristic that keeps internal state about one game and updates it as moves
+// are made and undone, instead of recomputing everything in score()
+// The search calls reset() once on the position it starts from, and then
+// moveMade() and moveUndone() around every makeMove() and undoMove()
+// score() must give the same result as a from-scratch evaluation; if it is
+// called on a position the heuristic is not tracking, it resets itself first
+// An instance tracks one game at a time and is not thread safe
+public interface IncrementalHeuristic extends Heuristic {
+    // Rebuilds the internal state from scratch for the given game
+    void reset(Game game);
+
+    // Updates the internal state after a piece was placed at (row, col)
+    // game is the position after the move
+    void moveMade(Game game, int row, int col);
+
+    // Updates the internal state after the piece at (row, col) was removed
+    // game is the position after the undo
+    void moveUndone(Game game, int row, int col);
+
+    // Returns a new, independent instance for use by another search thread
+    IncrementalHeuristic fork();
+}
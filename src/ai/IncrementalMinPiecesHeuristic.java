@@ -0,0 +1,302 @@
+package ai;
+
+import game.*;
+
+// The same metric as MinPiecesHeuristic, maintained incrementally
+// For each colour it keeps two distance maps: the cost of reaching every cell
+// from the top row, and from the left column. A cell costs 0 if it holds the
+// colour's own stone, 1 if it is empty, and cannot be entered if it holds the
+// other colour's stone. The score is the smallest distance on the far edge.
+//
+// A move changes the cost of a single cell, so the maps are repaired rather
+// than rebuilt (dynamic shortest paths):
+//   - where the cost drops (own stone placed, opponent stone removed), a
+//     Dijkstra search starts at that cell and only touches cells that improve
+//   - where the cost rises (opponent stone placed, own stone removed), only
+//     the cells whose shortest path ran through that cell are invalidated;
+//     they are re-seeded from their unaffected neighbours and re-settled
+// Repairs are also lazy: each map queues the cell changes it has not applied
+// yet and only catches up when it is needed by score(). Only the two maps of
+// the player to move are ever needed at once, and an undo that matches the
+// last queued change of a map simply cancels it, so most make/undo pairs in a
+// search cost nothing for the maps that are not scored in between.
+// All buffers are allocated in reset(), so updates and scoring allocate nothing.
+public class IncrementalMinPiecesHeuristic implements IncrementalHeuristic {
+    private static final int EMPTY = 0, WHITE = 1, BLACK = 2;
+
+    // Distance of unreachable cells; large enough that adding costs never overflows
+    private static final int INF = Integer.MAX_VALUE / 4;
+
+    private int size;
+    private int cells;
+
+    // Maps are indexed by colour * 2 + (vertical ? 0 : 1)
+    // distance[map][cell] is valid for the board board[map], which lags
+    // behind the game by the changes queued in pending[map]
+    private int[][] distance;
+    private int[][] board;
+
+    // Queued changes of each map, encoded as cell * 4 + new piece
+    private int[][] pending;
+    private int[] pendingCount;
+
+    // Hash of the position the maps describe
+    private long hash;
+    private boolean valid;
+
+    // Scratch space for repairs
+    private int[] mark;
+    private int stamp;
+    private int[] affected;
+    private int[] stack;
+    private long[] heap;
+    private int heapSize;
+
+    @Override
+    public int score(Game game) {
+        if (!valid || game.getSize() != size || game.hash() != hash)
+            reset(game);
+        int own = game.currentPlayer() == PieceColour.WHITE ? 0 : 1;
+        flush(own * 2);
+        flush(own * 2 + 1);
+        int[] vertical = distance[own * 2], horizontal = distance[own * 2 + 1];
+        int best = INF;
+        for (int i = 0; i < size; i++) {
+            best = Math.min(best, vertical[cells - size + i]);
+            best = Math.min(best, horizontal[i * size + size - 1]);
+        }
+        return -(best >= INF ? cells : best);
+    }
+
+    @Override
+    public void reset(Game game) {
+        if (board == null || game.getSize() != size) {
+            size = game.getSize();
+            cells = size * size;
+            board = new int[4][cells];
+            distance = new int[4][cells];
+            pending = new int[4][2 * cells];
+            pendingCount = new int[4];
+            mark = new int[cells];
+            affected = new int[cells];
+            stack = new int[cells];
+            heap = new long[6 * cells + 16];
+        }
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                PieceColour piece = game.getPiece(r, c);
+                board[0][r * size + c] = piece == PieceColour.WHITE ? WHITE
+                        : piece == PieceColour.BLACK ? BLACK : EMPTY;
+            }
+        }
+        for (int map = 0; map < 4; map++) {
+            if (map > 0) System.arraycopy(board[0], 0, board[map], 0, cells);
+            pendingCount[map] = 0;
+            int[] d = distance[map];
+            boolean vertical = (map & 1) == 0;
+            for (int cell = 0; cell < cells; cell++) d[cell] = INF;
+            for (int i = 0; i < size; i++) {
+                int cell = vertical ? i : i * size;
+                int nd = support(map, cell);
+                if (nd < d[cell]) {
+                    d[cell] = nd;
+                    push(nd, cell);
+                }
+            }
+            settle(map);
+        }
+        hash = game.hash();
+        valid = true;
+    }
+
+    @Override
+    public void moveMade(Game game, int row, int col) {
+        if (!valid || game.getSize() != size) {
+            reset(game);
+            return;
+        }
+        int cell = row * size + col;
+        int piece = game.getPiece(row, col) == PieceColour.WHITE ? WHITE : BLACK;
+        for (int map = 0; map < 4; map++)
+            queue(map, cell * 4 + piece);
+        hash = game.hash();
+    }
+
+    @Override
+    public void moveUndone(Game game, int row, int col) {
+        if (!valid || game.getSize() != size) {
+            reset(game);
+            return;
+        }
+        int cell = row * size + col;
+        for (int map = 0; map < 4; map++) {
+            int n = pendingCount[map];
+            // Undoing the last queued placement of this cell cancels it
+            if (n > 0 && pending[map][n - 1] >> 2 == cell) pendingCount[map] = n - 1;
+            else queue(map, cell * 4 + EMPTY);
+        }
+        hash = game.hash();
+    }
+
+    @Override
+    public IncrementalHeuristic fork() {
+        return new IncrementalMinPiecesHeuristic();
+    }
+
+    // Adds a change to a map's queue, catching up first if the queue is full
+    private void queue(int map, int change) {
+        if (pendingCount[map] == pending[map].length) flush(map);
+        pending[map][pendingCount[map]++] = change;
+    }
+
+    // Applies the queued changes of a map one at a time
+    private void flush(int map) {
+        int[] b = board[map];
+        for (int i = 0; i < pendingCount[map]; i++) {
+            int change = pending[map][i];
+            int cell = change >> 2, piece = change & 3;
+            int before = cost(map, cell);
+            b[cell] = piece;
+            int after = cost(map, cell);
+            if (after < before) decrease(map, cell);
+            else if (after > before) increase(map, cell);
+        }
+        pendingCount[map] = 0;
+    }
+
+    // Cost of entering a cell on a map's board
+    private int cost(int map, int cell) {
+        int piece = board[map][cell];
+        return piece == EMPTY ? 1 : piece == (map < 2 ? WHITE : BLACK) ? 0 : INF;
+    }
+
+    // The distance a cell would have given its neighbours' current distances
+    private int support(int map, int cell) {
+        int[] d = distance[map];
+        boolean vertical = (map & 1) == 0;
+        int c = cost(map, cell);
+        if (c >= INF) return INF;
+        int r = cell / size, col = cell % size;
+        int best = (vertical ? r == 0 : col == 0) ? 0 : INF;
+        if (r > 0) best = Math.min(best, d[cell - size]);
+        if (r < size - 1) best = Math.min(best, d[cell + size]);
+        if (col > 0) best = Math.min(best, d[cell - 1]);
+        if (col < size - 1) best = Math.min(best, d[cell + 1]);
+        return best >= INF ? INF : best + c;
+    }
+
+    // Repairs a map after the cost of cell went down
+    private void decrease(int map, int cell) {
+        int[] d = distance[map];
+        int nd = support(map, cell);
+        if (nd < d[cell]) {
+            d[cell] = nd;
+            push(nd, cell);
+            settle(map);
+        }
+    }
+
+    // Repairs a map after the cost of cell went up
+    private void increase(int map, int cell) {
+        int[] d = distance[map];
+        if (++stamp == 0) {
+            java.util.Arrays.fill(mark, 0);
+            stamp = 1;
+        }
+
+        // Collect the cells whose distance was derived through cell
+        int count = 0, top = 0;
+        mark[cell] = stamp;
+        stack[top++] = cell;
+        while (top > 0) {
+            int u = stack[--top];
+            affected[count++] = u;
+            if (d[u] >= INF) continue;
+            int r = u / size, c = u % size;
+            if (r > 0) top = collect(map, u, u - size, top);
+            if (r < size - 1) top = collect(map, u, u + size, top);
+            if (c > 0) top = collect(map, u, u - 1, top);
+            if (c < size - 1) top = collect(map, u, u + 1, top);
+        }
+
+        // Invalidate them, re-seed from the unaffected cells around them, and settle
+        for (int i = 0; i < count; i++) d[affected[i]] = INF;
+        for (int i = 0; i < count; i++) {
+            int u = affected[i];
+            int nd = support(map, u);
+            if (nd < INF) {
+                d[u] = nd;
+                push(nd, u);
+            }
+        }
+        settle(map);
+    }
+
+    // Pushes v onto the collection stack if its distance is tight through u
+    private int collect(int map, int u, int v, int top) {
+        if (mark[v] == stamp) return top;
+        int[] d = distance[map];
+        int c = cost(map, v);
+        if (c >= INF || d[v] != d[u] + c) return top;
+        mark[v] = stamp;
+        stack[top++] = v;
+        return top;
+    }
+
+    // Runs Dijkstra's algorithm from the cells on the heap until no distance improves
+    private void settle(int map) {
+        int[] d = distance[map];
+        while (heapSize > 0) {
+            long top = pop();
+            int u = (int) top;
+            int du = (int) (top >>> 32);
+            if (du > d[u]) continue;
+            int r = u / size, c = u % size;
+            if (r > 0) relax(map, du, u - size);
+            if (r < size - 1) relax(map, du, u + size);
+            if (c > 0) relax(map, du, u - 1);
+            if (c < size - 1) relax(map, du, u + 1);
+        }
+    }
+
+    private void relax(int map, int du, int v) {
+        int c = cost(map, v);
+        if (c >= INF) return;
+        int nd = du + c;
+        int[] d = distance[map];
+        if (nd < d[v]) {
+            d[v] = nd;
+            push(nd, v);
+        }
+    }
+
+    // Binary min-heap of (distance << 32 | cell)
+
+    private void push(int dist, int cell) {
+        long key = ((long) dist << 32) | cell;
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= key) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+    }
+
+    private long pop() {
+        long result = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= last) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return result;
+    }
+}
@@ -0,0 +1,353 @@
+package ai;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import game.*;
+
+// An implementation of Monte Carlo Tree Search with UCT selection
+// Each playout walks down the tree choosing the child with the best upper
+// confidence bound, adds one new node, and then finishes the game with random
+// moves. Random playouts do not check for a win after every move: they fill
+// the whole board and run a single connectivity check at the end. Only if both
+// colours are connected on the full board is the fill order replayed to find
+// out who connected first.
+//
+// Several threads can share one tree (tree parallelism). A thread that walks
+// through a node counts a visit there straight away with no reward (a virtual
+// loss), which steers the other threads towards different lines until the
+// playout's real result is added.
+//
+// In the SearchStats of a search, every tree node walked through counts as a
+// node, every playout as a leaf evaluation, and the depth is the deepest
+// line of the tree. There are no cutoffs.
+public class MCTS implements AI {
+    // Default UCT exploration constant, sqrt(2)
+    private static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
+    private final long playouts;
+    private long timeLimit;
+    private int threads = 1;
+    private double exploration = DEFAULT_EXPLORATION;
+    private Random random = new Random();
+
+    // Statistics of the last search, summed over all threads
+    private SearchStats lastStats = new SearchStats();
+
+    // State shared by the threads of the search in progress
+    private final AtomicLong started = new AtomicLong();
+    private volatile long deadline;
+
+    // playouts is the number of playouts per move
+    // With a time limit set, it is an upper bound instead
+    public MCTS(long playouts) {
+        if (playouts < 1) throw new IllegalArgumentException("playouts must be at least 1");
+        this.playouts = playouts;
+    }
+
+    // Limits the time spent on each move, in milliseconds
+    // The search stops at the limit or after the given number of playouts,
+    // whichever comes first
+    // A limit of 0 removes the time limit
+    public void setTimeLimit(long millis) {
+        if (millis < 0) throw new IllegalArgumentException("time limit must not be negative");
+        this.timeLimit = millis;
+    }
+
+    // Sets the number of threads running playouts, including the calling thread
+    public void setThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be at least 1");
+        this.threads = threads;
+    }
+
+    // Sets the UCT exploration constant; larger values try more different moves
+    public void setExploration(double exploration) {
+        if (!(exploration >= 0)) throw new IllegalArgumentException("exploration must not be negative");
+        this.exploration = exploration;
+    }
+
+    // Seeds the random number generators, so single-threaded searches are repeatable
+    public void setRandomSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public SearchStats getSearchStats() {
+        return lastStats;
+    }
+
+    // Throws IllegalStateException if the game is already over
+    @Override
+    public Move getCurrentPlayerMove(Game game) {
+        if (game.isOver()) throw new IllegalStateException("Game is already over");
+        MoveDecisionEvent event = new MoveDecisionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        deadline = timeLimit > 0 ? start + timeLimit * 1_000_000 : start + Long.MAX_VALUE / 2;
+        started.set(0);
+
+        int size = game.getSize();
+        Node root = new Node(-1, null);
+        Worker[] workers = new Worker[threads];
+        Thread[] helperThreads = new Thread[threads - 1];
+        for (int i = 0; i < threads; i++)
+            workers[i] = new Worker(game.copy(), root, new Random(random.nextLong()));
+        // One playout runs before the helpers start and whatever the deadline,
+        // so the root always has a child to play even if starting the
+        // threads uses up the time limit
+        workers[0].runOnce();
+        for (int i = 1; i < threads; i++) {
+            Worker helper = workers[i];
+            helperThreads[i - 1] = new Thread(helper::run, "mcts-helper-" + i);
+            helperThreads[i - 1].setDaemon(true);
+            helperThreads[i - 1].start();
+        }
+        workers[0].run();
+        for (Thread t : helperThreads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        SearchStats stats = new SearchStats();
+        for (Worker w : workers) stats.add(w.stats);
+        stats.setElapsedNanos(System.nanoTime() - start);
+        lastStats = stats;
+
+        // Play the most visited move; it is the most reliable estimate
+        Node best = null;
+        synchronized (root) {
+            for (int i = 0; i < root.childCount; i++)
+                if (best == null || root.children[i].visits > best.visits)
+                    best = root.children[i];
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.engine = "mcts";
+            event.boardSize = size;
+            event.row = best.move / size;
+            event.col = best.move % size;
+            event.threads = threads;
+            event.set(stats);
+            event.commit();
+        }
+        return new MoveImpl(best.move / size, best.move % size);
+    }
+
+    // A position in the search tree
+    // The statistics of a node are only read and written while holding its parent's lock
+    private static final class Node {
+        // The move that leads to this node from its parent, or -1 for the root
+        final int move;
+        final Node parent;
+        // Visits, including virtual losses of playouts still running
+        int visits;
+        // Playout results from the point of view of the player who made move;
+        // a win counts 2 and a draw 1, so the value of the node is wins / (2 * visits)
+        long wins;
+
+        // Guarded by this node's lock
+        Node[] children;
+        int childCount;
+        int[] untried;
+        int untriedCount;
+        int childVisits;
+
+        Node(int move, Node parent) {
+            this.move = move;
+            this.parent = parent;
+        }
+    }
+
+    // The playout state owned by one thread
+    private class Worker {
+        private final Game board;
+        private final Node root;
+        private final Random random;
+        private final int size;
+        private final int cells;
+        private final Node[] path;
+        private final SearchStats stats = new SearchStats();
+        // Set by select() when it returned a newly created node
+        private boolean expanded;
+
+        // Rollout buffers
+        private final int[] cellColour;
+        private final int[] fill;
+        private final int[] parent;
+        private final byte[] edges;
+
+        Worker(Game board, Node root, Random random) {
+            this.board = board;
+            this.root = root;
+            this.random = random;
+            this.size = board.getSize();
+            this.cells = size * size;
+            this.path = new Node[cells + 1];
+            this.cellColour = new int[cells];
+            this.fill = new int[cells];
+            this.parent = new int[cells];
+            this.edges = new byte[cells];
+        }
+
+        void runOnce() {
+            started.getAndIncrement();
+            playout();
+            stats.leaf();
+        }
+
+        void run() {
+            while (started.getAndIncrement() < MCTS.this.playouts && System.nanoTime() - deadline < 0) {
+                playout();
+                stats.leaf();
+            }
+        }
+
+        // Runs one selection, expansion, rollout and backpropagation step
+        private void playout() {
+            int depth = 0;
+            Node node = root;
+            while (!board.isOver()) {
+                Node child = select(node);
+                board.makeMove(child.move);
+                path[depth++] = child;
+                node = child;
+                stats.node();
+                if (expanded) break;
+            }
+            if (depth > stats.getDepth()) stats.setDepth(depth);
+
+            PieceColour winner = board.isOver() ? board.winner() : rollout();
+
+            for (int i = depth - 1; i >= 0; i--) {
+                Node child = path[i];
+                PieceColour mover = board.getPiece(child.move / size, child.move % size);
+                int reward = winner == PieceColour.NONE ? 1 : winner == mover ? 2 : 0;
+                synchronized (child.parent) {
+                    child.wins += reward;
+                }
+                board.undoMove();
+            }
+        }
+
+        // Picks the child of node to descend into and adds a virtual loss to it
+        // The first visits to a node expand its untried moves in random order
+        private Node select(Node node) {
+            synchronized (node) {
+                if (node.untried == null) {
+                    node.untried = new int[cells];
+                    node.untriedCount = board.getMoves(node.untried);
+                    node.children = new Node[node.untriedCount];
+                }
+                Node chosen;
+                expanded = node.untriedCount > 0;
+                if (expanded) {
+                    int i = random.nextInt(node.untriedCount);
+                    int move = node.untried[i];
+                    node.untried[i] = node.untried[--node.untriedCount];
+                    chosen = new Node(move, node);
+                    node.children[node.childCount++] = chosen;
+                } else {
+                    double logVisits = Math.log(node.childVisits);
+                    double bestValue = Double.NEGATIVE_INFINITY;
+                    chosen = null;
+                    for (int i = 0; i < node.childCount; i++) {
+                        Node child = node.children[i];
+                        double value = child.wins / (2.0 * child.visits)
+                                + exploration * Math.sqrt(logVisits / child.visits);
+                        if (value > bestValue) {
+                            bestValue = value;
+                            chosen = child;
+                        }
+                    }
+                }
+                chosen.visits++;
+                node.childVisits++;
+                return chosen;
+            }
+        }
+
+        // Fills the rest of the board at random and returns the winner
+        // The board itself is not modified
+        private PieceColour rollout() {
+            int empty = 0;
+            for (int cell = 0; cell < cells; cell++) {
+                PieceColour piece = board.getPiece(cell / size, cell % size);
+                cellColour[cell] = piece == PieceColour.WHITE ? 1 : piece == PieceColour.BLACK ? 2 : 0;
+                if (piece == PieceColour.NONE) fill[empty++] = cell;
+            }
+            // Shuffle the empty cells; they are then played in this order, alternating colours
+            int toMove = board.currentPlayer() == PieceColour.WHITE ? 1 : 2;
+            for (int i = empty - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = fill[i]; fill[i] = fill[j]; fill[j] = t;
+            }
+            for (int i = 0; i < empty; i++)
+                cellColour[fill[i]] = (i & 1) == 0 ? toMove : 3 - toMove;
+
+            // One connectivity check on the full board
+            for (int cell = 0; cell < cells; cell++) parent[cell] = -1;
+            for (int cell = 0; cell < cells; cell++) add(cell);
+            boolean whiteSpans = false, blackSpans = false;
+            for (int cell = 0; cell < cells; cell++) {
+                if (parent[cell] != cell || !spans(edges[cell])) continue;
+                if (cellColour[cell] == 1) whiteSpans = true;
+                else blackSpans = true;
+            }
+            if (whiteSpans != blackSpans) return whiteSpans ? PieceColour.WHITE : PieceColour.BLACK;
+            if (!whiteSpans) return PieceColour.NONE;
+
+            // Both colours connected, so replay the fill to find who did it first
+            // The stones already on the board cannot span, or the game would be over
+            for (int cell = 0; cell < cells; cell++) parent[cell] = -1;
+            for (int cell = 0; cell < cells; cell++)
+                if (board.getPiece(cell / size, cell % size) != PieceColour.NONE) add(cell);
+            for (int i = 0; i < empty; i++) {
+                if (spans(edges[add(fill[i])]))
+                    return cellColour[fill[i]] == 1 ? PieceColour.WHITE : PieceColour.BLACK;
+            }
+            return PieceColour.NONE;
+        }
+
+        // Adds the stone at cell to the rollout union-find, joining it with
+        // neighbours of the same colour that are already present (parent >= 0)
+        // The new stone becomes the root of the merged group, which is returned
+        private int add(int cell) {
+            int r = cell / size, c = cell % size;
+            parent[cell] = cell;
+            edges[cell] = (byte) ((c == 0 ? 1 : 0) | (c == size - 1 ? 2 : 0)
+                    | (r == 0 ? 4 : 0) | (r == size - 1 ? 8 : 0));
+            int root = cell;
+            if (r > 0) root = join(root, cell - size);
+            if (r < size - 1) root = join(root, cell + size);
+            if (c > 0) root = join(root, cell - 1);
+            if (c < size - 1) root = join(root, cell + 1);
+            return root;
+        }
+
+        // Joins the group rooted at root with the group of a neighbouring cell
+        // if that cell is present and has the same colour; returns the new root
+        private int join(int root, int neighbour) {
+            if (parent[neighbour] < 0 || cellColour[neighbour] != cellColour[root]) return root;
+            int other = find(neighbour);
+            if (other == root) return root;
+            parent[other] = root;
+            edges[root] |= edges[other];
+            return root;
+        }
+
+        private int find(int x) {
+            while (parent[x] != x) {
+                parent[x] = parent[parent[x]];
+                x = parent[x];
+            }
+            return x;
+        }
+
+        private boolean spans(int mask) {
+            return (mask & 3) == 3 || (mask & 12) == 12;
+        }
+    }
+}
@@ -1,84 +1,594 @@
 package ai;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Random;
 
 import game.*;
 
 // An implementation of the Minimax algorithm
+// The search is written in negamax form: every score is from the point of view
+// of the player to move at that node, which matches the Heuristic contract.
+// Child positions are explored by making and undoing moves on a single copy
+// of the game, and moves are generated as cell indices into reused buffers,
+// so nothing is allocated per node.
+// Results are cached in a TranspositionTable keyed by the canonical hash of
+// the position (see Symmetry), so a position reached through a different move
+// order, or a rotation or reflection of one already searched, is not
+// searched again. Stored moves are kept in the canonical orientation and
+// mapped back on lookup. At the root, moves that a symmetry of the position
+// maps onto each other lead to equivalent positions, so only one is searched.
+// The root is searched by iterative deepening: depth 1, 2, ... up to maxDepth,
+// each iteration trying the previous best move first and finding the rest of
+// the previous best line through the table. With a time limit set, the
+// search stops at the deadline and plays the move of the last finished depth.
+//
+// With more than one thread the search runs Lazy SMP: helper threads search
+// the same position on their own copies of the game, in a different move
+// order, and share only the transposition table. The move is always taken
+// from the main thread, which finds more of its subtrees already searched.
+// With one thread no helpers are started and the search is sequential.
+//
+// The Algorithm chooses how the children of a node are searched. ALPHA_BETA
+// gives every child the full window. PVS (principal variation search) gives
+// the full window to the first child only, tests the others with a null
+// window and searches again only the ones that turn out better, and searches
+// the root in an aspiration window around the previous iteration's score.
+// PVS_LMR adds late move reductions: moves far down the order are first
+// searched one ply shallower. ALPHA_BETA and PVS return the same scores;
+// PVS_LMR may miss lines that only show up at full depth.
+//
+// Moves are ordered by a MoveOrderer (hash move, killers, history, centre).
+// The main thread's ordering tables are kept between moves of a game; helpers
+// break ties randomly so that they explore different parts of the tree.
+//
+// If the heuristic is an IncrementalHeuristic, every thread uses its own fork
+// of it and reports each move made and undone, so leaves are scored from
+// incrementally maintained state instead of from scratch.
+//
+// Once few enough cells are empty, the position is first handed to a
+// ProofNumberSearch. If it proves a win or a draw, its move is played, so
+// endgames are played perfectly; otherwise the normal search runs.
+//
+// Dead cells, which can never become part of a winning path for either
+// player, are removed from the move lists by a MoveFilter. This does not
+// change the value of any position, and a position whose empty cells are all
+// dead is scored as the draw it will end in. Dead cells only appear once the
+// board is crowded, so the filter runs at the root and at interior nodes with
+// at most half of the cells empty, where it pays for itself.
+//
+// Nodes with at least two moves left to search are also checked for
+// one-move threats (see Threats). If the player to move can win at once, the
+// node is scored as a win without searching. If not, and the opponent could
+// win with their next stone, only the cells that stop that are searched,
+// since every other move loses, and if there are two such cells the node is
+// scored as a loss at once. At the root the moves are restricted in the same
+// way. Nodes one move above the leaves are not checked, since there the
+// check costs about as much as it saves.
+//
+// If an OpeningBook is set, positions in the book are answered from it
+// without searching.
+//
+// Every search fills a SearchStats, and emits a JFR SearchEvent per completed
+// depth of the main thread and a MoveDecisionEvent per move.
 public class Minimax implements AI {
+    // Score of a won position; a lost position scores -WIN
+    static final long WIN = Integer.MAX_VALUE;
+
+    // Strictly outside every reachable score, used as the initial window
+    private static final long INFINITY = WIN + 1;
+
+    // Number of slots in the table created by the two-argument constructor
+    private static final int DEFAULT_TABLE_SLOTS = 1 << 18;
+
+    // The clock is read once every this many nodes (must be a power of two)
+    private static final int CLOCK_INTERVAL = 1024;
+
+    // Half-width of the root aspiration window, in heuristic points
+    private static final long ASPIRATION_WINDOW = 1;
+
+    // Late move reductions apply from this move index on, with at least this depth left
+    private static final int LMR_MOVES = 3;
+    private static final int LMR_DEPTH = 3;
+
+    // How the children of each node are searched
+    public enum Algorithm {
+        // Plain alpha-beta: every child is searched with the full window
+        ALPHA_BETA,
+        // Principal variation search with aspiration windows at the root
+        PVS,
+        // PVS with late move reductions
+        PVS_LMR
+    }
+
     private int maxDepth;
     private Heuristic heuristic;
+    private final TranspositionTable table;
+
+    // Breaks ties in the main thread's move ordering, or null for a deterministic order
+    private Random random;
+
+    // Move ordering tables of the main thread, kept between searches
+    private MoveOrderer orderer;
+
+    // The main thread's fork of the heuristic, if it is incremental
+    private IncrementalHeuristic incremental;
+
+    // Time allowed per move in milliseconds, or 0 to always search to maxDepth
+    private long timeLimit;
 
+    // Number of threads searching each move, including the calling thread
+    private int threads = 1;
+
+    // Moves for early positions, or null
+    private OpeningBook book;
+
+    // True to remove dead cells from the move lists
+    private boolean filterMoves = true;
+
+    private Algorithm algorithm = Algorithm.ALPHA_BETA;
+
+    // True to restrict the moves of threatened positions to the must-play region
+    private boolean mustPlay = true;
+
+    // The solver is tried when at most solverEmptyCells cells are empty
+    private static final int DEFAULT_SOLVER_EMPTY_CELLS = 12;
+    private static final long DEFAULT_SOLVER_NODES = 1_000_000;
+    private int solverEmptyCells = DEFAULT_SOLVER_EMPTY_CELLS;
+    private long solverNodes = DEFAULT_SOLVER_NODES;
+    private ProofNumberSearch solver;
+
+    // State shared by all threads of the search in progress
+    private volatile long deadline;
+    private volatile boolean abort;
+
+    // Statistics of the last search, summed over all threads
+    private SearchStats lastStats = new SearchStats();
 
     // maxDepth is the number of moves ahead to look
     // heuristic is used to estimate the quality of a non-terminal game state
     public Minimax(int maxDepth, Heuristic heuristic) {
+        this(maxDepth, heuristic, new TranspositionTable(DEFAULT_TABLE_SLOTS));
+    }
+
+    // table caches search results between calls
+    // The same table may be shared by several Minimax instances and threads
+    public Minimax(int maxDepth, Heuristic heuristic, TranspositionTable table) {
         if (maxDepth < 1) throw new IllegalArgumentException("maxDepth must be at least 1");
+        if (table == null) throw new IllegalArgumentException("table must not be null");
         this.maxDepth = maxDepth;
         this.heuristic = heuristic;
+        this.table = table;
+        if (heuristic instanceof IncrementalHeuristic)
+            this.incremental = ((IncrementalHeuristic) heuristic).fork();
     }
 
-    // Returns the list of moves in a random order
-    private ArrayList<Move> getMoves(Game game) {
-        var moves = new ArrayList<>(game.getMoves());
-        Collections.shuffle(moves, new Random());
-        return moves;
+    // Limits the time spent on each move, in milliseconds
+    // The search then deepens one move at a time until the limit runs out
+    // or maxDepth is reached, so pass a large maxDepth to use the whole budget
+    // Depth 1 is always completed, so a move is returned even if the limit is tiny
+    // A limit of 0 removes the time limit
+    public void setTimeLimit(long millis) {
+        if (millis < 0) throw new IllegalArgumentException("time limit must not be negative");
+        this.timeLimit = millis;
     }
 
-    // Returns the score of the best move for the current player
-    // Uses minimax with alpha-beta pruning
-    private long minimax(Game game, int depth, long alpha, long beta, PieceColour player) {
-        if (game.isOver() || depth == 0) {
-            if (game.winner() == player) return Integer.MAX_VALUE;
-            else if (game.winner() != PieceColour.NONE) return Integer.MIN_VALUE;
-            return heuristic.score(game);
-        }
+    // Sets the number of threads used to search each move
+    // The heuristic must be safe to call from several threads at once,
+    // unless it is an IncrementalHeuristic, which is forked for each thread
+    public void setThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be at least 1");
+        this.threads = threads;
+    }
 
-        var moves = getMoves(game);
+    // Breaks ties between equally ranked moves with a Random seeded with seed
+    // Without a seed the search is deterministic
+    public void setRandomSeed(long seed) {
+        this.random = new Random(seed);
+        this.orderer = null;
+    }
 
-        if (game.currentPlayer() == player) {
-            long bestScore = Integer.MIN_VALUE;
-            for (Move move : moves) {
-                Game newGame = game.copy();
-                newGame.makeMove(move);
-                long score = minimax(newGame, depth - 1, alpha, beta, player);
-                bestScore = Math.max(bestScore, score);
-                if (bestScore >= beta) return bestScore;
-                alpha = Math.max(alpha, score);
-            }
-            return bestScore;
-        } else {
-            long bestScore = Integer.MAX_VALUE;
-            for (Move move : moves) {
-                Game newGame = game.copy();
-                newGame.makeMove(move);
-                long score = minimax(newGame, depth - 1, alpha, beta, player);
-                bestScore = Math.min(bestScore, score);
-                if (bestScore <= alpha) return bestScore;
-                beta = Math.min(beta, score);
-            }
-            return bestScore;
-        }
+    // Plays the moves of book in the positions it contains, instead of searching
+    // Pass null to always search
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    // Chooses how the children of each node are searched
+    // The default is ALPHA_BETA
+    public void setAlgorithm(Algorithm algorithm) {
+        if (algorithm == null) throw new IllegalArgumentException("algorithm must not be null");
+        this.algorithm = algorithm;
+    }
+
+    // Turns the removal of dead cells from the move lists on or off
+    // It is on by default; turning it off only makes the search slower
+    public void setMoveFilter(boolean enabled) {
+        this.filterMoves = enabled;
+    }
+
+    // Turns the restriction of threatened positions to their must-play region
+    // on or off; it is on by default
+    public void setMustPlay(boolean enabled) {
+        this.mustPlay = enabled;
+    }
+
+    // Solves positions with at most emptyCells empty cells exactly before
+    // searching, visiting at most maxNodes positions
+    // With a time limit set, the solver gets half of it
+    // An emptyCells of 0 turns the solver off
+    public void setSolver(int emptyCells, long maxNodes) {
+        if (emptyCells < 0) throw new IllegalArgumentException("emptyCells must not be negative");
+        if (maxNodes < 1) throw new IllegalArgumentException("maxNodes must be positive");
+        this.solverEmptyCells = emptyCells;
+        this.solverNodes = maxNodes;
+        this.solver = null;
+    }
+
+    // Makes a search running on another thread return as soon as possible,
+    // with the best move of the last depth it finished
+    // Has no effect on a search that starts later
+    public void stop() {
+        abort = true;
+        ProofNumberSearch current = solver;
+        if (current != null) current.stop();
+    }
+
+    // Statistics of the last call to getCurrentPlayerMove, summed over all threads
+    // The depth is the last depth completed by the main thread
+    @Override
+    public SearchStats getSearchStats() {
+        return lastStats;
     }
 
     @Override
     public Move getCurrentPlayerMove(Game game) {
-        var moves = getMoves(game);
-        Move bestMove = moves.get(0);
-        long bestScore = Integer.MIN_VALUE, alpha = Integer.MIN_VALUE, beta = Integer.MAX_VALUE;
-        for (Move move : moves) {
-            Game newGame = game.copy();
-            newGame.makeMove(move);
-            long score = minimax(newGame, maxDepth-1, alpha, beta, game.currentPlayer());
-            if (score > bestScore) {
-                bestScore = score;
-                bestMove = move;
+        MoveDecisionEvent event = new MoveDecisionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Move bookMove = book == null ? null : book.lookup(game);
+        if (bookMove != null) {
+            lastStats = new SearchStats();
+            lastStats.setElapsedNanos(System.nanoTime() - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.engine = "minimax-book";
+                event.boardSize = game.getSize();
+                event.row = bookMove.getRow();
+                event.col = bookMove.getCol();
+                event.threads = threads;
+                event.commit();
+            }
+            return bookMove;
+        }
+
+        Move solved = solve(game, start);
+        if (solved != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.engine = "minimax-solver";
+                event.boardSize = game.getSize();
+                event.row = solved.getRow();
+                event.col = solved.getCol();
+                event.threads = threads;
+                event.set(lastStats);
+                event.commit();
+            }
+            return solved;
+        }
+
+        table.newSearch();
+        abort = false;
+        // The first iteration runs without a deadline so there is always a result
+        deadline = System.nanoTime() + Long.MAX_VALUE / 2;
+        long budget = timeLimit > 0 ? timeLimit * 1_000_000 : 0;
+
+        Game board = game.copy();
+        int size = board.getSize();
+        if (orderer == null || orderer.size() != size || orderer.maxPly() < maxDepth)
+            orderer = new MoveOrderer(size, maxDepth, random);
+        else
+            orderer.age();
+
+        Worker main = new Worker(board, orderer, incremental);
+        Worker[] helpers = new Worker[threads - 1];
+        Thread[] helperThreads = new Thread[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            Worker helper = new Worker(game.copy(), new MoveOrderer(size, maxDepth, new Random(i)),
+                    incremental == null ? null : incremental.fork());
+            // Odd helpers start one ply deeper so the threads spread over depths
+            int firstDepth = 1 + (i & 1);
+            helpers[i] = helper;
+            helperThreads[i] = new Thread(() -> helper.iterate(firstDepth, 0),
+                    "minimax-helper-" + (i + 1));
+            helperThreads[i].setDaemon(true);
+            helperThreads[i].start();
+        }
+
+        Move bestMove = main.iterate(1, budget);
+
+        abort = true;
+        SearchStats stats = new SearchStats();
+        stats.add(main.stats);
+        for (int i = 0; i < helpers.length; i++) {
+            try {
+                helperThreads[i].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-            alpha = Math.max(alpha, score);
+            stats.add(helpers[i].stats);
+        }
+        stats.setDepth(main.stats.getDepth());
+        stats.setElapsedNanos(System.nanoTime() - start);
+        lastStats = stats;
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.engine = "minimax";
+            event.boardSize = size;
+            event.row = bestMove.getRow();
+            event.col = bestMove.getCol();
+            event.threads = threads;
+            event.set(stats);
+            event.commit();
         }
         return bestMove;
     }
-    
+
+    // Runs the solver if the position is small enough, and returns its move
+    // if it proved a win or a draw, or null to search instead
+    private Move solve(Game game, long start) {
+        int empty = game.getMoves(new int[game.getSize() * game.getSize()]);
+        if (solverEmptyCells == 0 || empty > solverEmptyCells) return null;
+        if (solver == null) solver = new ProofNumberSearch(solverNodes);
+        solver.solve(game, timeLimit * 1_000_000 / 2);
+        Move move = solver.getBestMove();
+        if (move == null) return null;
+        lastStats = new SearchStats();
+        lastStats.addNodes(solver.getNodeCount());
+        lastStats.setDepth(empty);
+        lastStats.setElapsedNanos(System.nanoTime() - start);
+        return move;
+    }
+
+    // The search state owned by one thread
+    private class Worker {
+        private final Game board;
+        private final MoveOrderer orderer;
+        // The thread's own incremental heuristic, or null to call the shared heuristic
+        private final IncrementalHeuristic incremental;
+        // Removes dead cells from move lists, or null
+        private final MoveFilter filter;
+        // Finds must-play regions, or null
+        private final Threats threats;
+        private final int size;
+        // Move list of each ply, as flat cell indices
+        private final int[][] moves;
+        private final SearchStats stats = new SearchStats();
+        private boolean stopped;
+
+        Worker(Game board, MoveOrderer orderer, IncrementalHeuristic incremental) {
+            this.board = board;
+            this.orderer = orderer;
+            this.incremental = incremental;
+            this.size = orderer.size();
+            this.filter = filterMoves ? new MoveFilter(size) : null;
+            this.threats = mustPlay ? new Threats(size) : null;
+            this.moves = new int[maxDepth + 1][size * size];
+        }
+
+        // Runs iterative deepening from firstDepth up to maxDepth
+        // If budget is positive, the shared deadline is set to budget nanoseconds
+        // after the start once the first iteration has finished
+        // Returns the best move of the last completed iteration
+        Move iterate(int firstDepth, long budget) {
+            long start = System.nanoTime();
+            if (incremental != null) incremental.reset(board);
+            int[] rootMoves = moves[0];
+            int count = board.getMoves(rootMoves);
+            int depthLimit = Math.min(maxDepth, count);
+            // If every cell is dead, every move draws; keep them all so that one is returned
+            if (filter != null) {
+                int live = filter.filter(board, rootMoves, count);
+                if (live > 0) count = live;
+            }
+            if (threats != null) count = threats.restrict(board, rootMoves, count);
+            count = removeSymmetricMoves(rootMoves, count);
+            // Order the root once; afterwards each iteration's best move is moved to the front
+            orderer.score(0, rootMoves, count, -1);
+            for (int i = 0; i < count; i++) orderer.next(0, rootMoves, count, i);
+
+            int bestMove = rootMoves[0];
+            long previousScore = 0;
+            for (int depth = Math.min(firstDepth, depthLimit); depth <= depthLimit; depth++) {
+                SearchEvent event = new SearchEvent();
+                event.begin();
+                long nodesBefore = stats.getNodes();
+                // Under PVS, start from a narrow window around the last score
+                // and open the side it fails on
+                long low = -INFINITY, high = INFINITY;
+                if (algorithm != Algorithm.ALPHA_BETA && depth > firstDepth && Math.abs(previousScore) < WIN) {
+                    low = previousScore - ASPIRATION_WINDOW;
+                    high = previousScore + ASPIRATION_WINDOW;
+                }
+                long bestScore;
+                int bestIndex;
+                while (true) {
+                    bestScore = -INFINITY;
+                    bestIndex = 0;
+                    long alpha = low;
+                    for (int i = 0; i < count; i++) {
+                        play(rootMoves[i]);
+                        long score = child(0, depth, i, alpha, high);
+                        unplay(rootMoves[i]);
+                        if (stopped) break;
+                        if (score > bestScore) {
+                            bestScore = score;
+                            bestIndex = i;
+                        }
+                        alpha = Math.max(alpha, score);
+                        if (alpha >= high) break;
+                    }
+                    if (stopped) break;
+                    if (bestScore <= low && low > -INFINITY) low = -INFINITY;
+                    else if (bestScore >= high && high < INFINITY) high = INFINITY;
+                    else break;
+                }
+                if (stopped) break;
+                previousScore = bestScore;
+
+                bestMove = rootMoves[bestIndex];
+                stats.setDepth(depth);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.engine = "minimax";
+                    event.boardSize = size;
+                    event.depth = depth;
+                    event.nodes = stats.getNodes() - nodesBefore;
+                    event.score = bestScore;
+                    event.bestMove = bestMove;
+                    event.commit();
+                }
+                // A forced win or loss will not change with more depth
+                if (Math.abs(bestScore) == WIN) break;
+                // Search the best move first in the next iteration
+                System.arraycopy(rootMoves, 0, rootMoves, 1, bestIndex);
+                rootMoves[0] = bestMove;
+                if (budget > 0 && depth == firstDepth)
+                    deadline = start + budget;
+            }
+            return new MoveImpl(bestMove / size, bestMove % size);
+        }
+
+        // Keeps one move of every set of moves that a symmetry of the board maps
+        // onto each other, preserving their order; returns the new count
+        private int removeSymmetricMoves(int[] list, int count) {
+            int[] stabilizer = new int[Symmetry.COUNT];
+            int symmetries = 0;
+            for (int s = 1; s < Symmetry.COUNT; s++)
+                if (Symmetry.preserves(board, s)) stabilizer[symmetries++] = s;
+            if (symmetries == 0) return count;
+
+            boolean[] covered = new boolean[size * size];
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                int move = list[i];
+                if (covered[move]) continue;
+                for (int j = 0; j < symmetries; j++)
+                    covered[Symmetry.apply(stabilizer[j], move, size)] = true;
+                list[kept++] = move;
+            }
+            return kept;
+        }
+
+        // Makes a move on the board and tells the incremental heuristic about it
+        private void play(int move) {
+            board.makeMove(move);
+            if (incremental != null) incremental.moveMade(board, move / size, move % size);
+        }
+
+        // Undoes a move made by play
+        private void unplay(int move) {
+            board.undoMove();
+            if (incremental != null) incremental.moveUndone(board, move / size, move % size);
+        }
+
+        // Scores the position just reached by the index-th move of a node at
+        // ply with depth moves left, for the player to move at that node
+        // Under PVS only the first move gets the full window; later ones are
+        // tested with a null window and searched again if they beat alpha.
+        // Under PVS_LMR a late move is tested one ply shallower first.
+        private long child(int ply, int depth, int index, long alpha, long beta) {
+            if (algorithm == Algorithm.ALPHA_BETA || index == 0)
+                return -minimax(ply + 1, depth - 1, -beta, -alpha);
+            int reduction = algorithm == Algorithm.PVS_LMR && index >= LMR_MOVES && depth >= LMR_DEPTH ? 1 : 0;
+            long score = -minimax(ply + 1, depth - 1 - reduction, -alpha - 1, -alpha);
+            if (score > alpha && reduction > 0 && !stopped)
+                score = -minimax(ply + 1, depth - 1, -alpha - 1, -alpha);
+            if (score > alpha && score < beta && !stopped)
+                score = -minimax(ply + 1, depth - 1, -beta, -alpha);
+            return score;
+        }
+
+        // Returns the score of the best move for the player to move
+        // Uses negamax with alpha-beta pruning
+        // ply is the distance from the root, depth the number of moves left to search
+        // The board is left exactly as it was
+        private long minimax(int ply, int depth, long alpha, long beta) {
+            stats.node();
+            if ((stats.getNodes() & (CLOCK_INTERVAL - 1)) == 0 && (abort || System.nanoTime() - deadline > 0)) {
+                stopped = true;
+                abort = true;
+            }
+            if (stopped) return 0;
+            if (board.isOver()) {
+                // The game can only have been won by the player who just moved
+                return board.winner() == PieceColour.NONE ? 0 : -WIN;
+            }
+            if (depth == 0) {
+                stats.leaf();
+                return incremental != null ? incremental.score(board) : heuristic.score(board);
+            }
+
+            int symmetry = Symmetry.canonical(board);
+            long hash = board.hash(symmetry);
+            long entry = table.probe(hash);
+            int hashMove = -1;
+            if (entry != 0) {
+                int storedMove = TranspositionTable.move(entry);
+                if (storedMove >= 0) hashMove = Symmetry.apply(Symmetry.inverse(symmetry), storedMove, size);
+                if (TranspositionTable.depth(entry) >= depth) {
+                    long stored = TranspositionTable.score(entry);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER && stored >= beta)
+                            || (bound == TranspositionTable.UPPER && stored <= alpha))
+                        return stored;
+                }
+            }
+
+            int[] list = moves[ply];
+            int count = board.getMoves(list);
+            if (filter != null && depth >= 2 && 2 * count <= size * size) {
+                count = filter.filter(board, list, count);
+                // No live cell is left, so neither player can win any more
+                if (count == 0) return 0;
+            }
+            if (threats != null && depth >= 2) {
+                count = threats.restrict(board, list, count);
+                if (threats.win()) return WIN;
+                // The opponent has two winning cells and only one can be taken
+                if (threats.block() && count > 1) return -WIN;
+            }
+            orderer.score(ply, list, count, hashMove);
+
+            long alphaOrig = alpha;
+            long bestScore = -INFINITY;
+            int bestMove = -1;
+            for (int i = 0; i < count; i++) {
+                int move = orderer.next(ply, list, count, i);
+                play(move);
+                long score = child(ply, depth, i, alpha, beta);
+                unplay(move);
+                // An interrupted subtree returns a meaningless score; do not store it
+                if (stopped) return 0;
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = move;
+                }
+                if (bestScore >= beta) {
+                    stats.cutoff(i);
+                    orderer.cutoff(ply, move, depth);
+                    break;
+                }
+                alpha = Math.max(alpha, score);
+            }
+
+            int bound = bestScore >= beta ? TranspositionTable.LOWER
+                    : bestScore <= alphaOrig ? TranspositionTable.UPPER
+                    : TranspositionTable.EXACT;
+            table.store(hash, depth, bound, (int) bestScore,
+                    bestMove < 0 ? -1 : Symmetry.apply(symmetry, bestMove, size));
+            return bestScore;
+        }
+    }
+
 }
@@ -0,0 +1,47 @@
+package ai;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// A JDK Flight Recorder event for one call to AI.getCurrentPlayerMove
+// The event's duration is the time taken to choose the move, so a recording
+// gives a latency histogram of move decisions without any logging
+@Name("ai.MoveDecision")
+@Label("Move Decision")
+@Category({ "Game AI" })
+@Description("An AI chose a move")
+class MoveDecisionEvent extends Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("Board Size")
+    int boardSize;
+
+    @Label("Row")
+    int row;
+
+    @Label("Column")
+    int col;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Leaf Evaluations")
+    long leafEvaluations;
+
+    @Label("Threads")
+    int threads;
+
+    // Copies the statistics of a finished search into the event
+    void set(SearchStats stats) {
+        depth = stats.getDepth();
+        nodes = stats.getNodes();
+        leafEvaluations = stats.getLeafEvaluations();
+    }
+}
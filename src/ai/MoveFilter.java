@@ -0,0 +1,244 @@
+package ai;
+
+import java.util.Arrays;
+
+import game.*;
+
+// Removes dead cells from a move list
+// A player wins with a group of stones that touches two opposite edges, and
+// every such group contains a simple path of stones from one edge to the
+// other. An empty cell is dead for a player if no simple path between
+// opposite edges through that player's stones and empty cells goes through
+// it: a stone there can never be part of that player's win, and an opponent
+// stone there can never block one. A cell that is dead for both players is
+// dead, and playing it is no better than passing.
+// A stone of one's own never hurts, so passing is never better than any other
+// move, and removing dead cells does not change the value of the position as
+// long as a live cell remains. If none remains, neither player can win any
+// more and the game will end in a draw.
+//
+// It is enough to look at minimal winning sets, the sets of empty cells
+// that would give the player a win and have no smaller subset that would.
+// These are found in two steps for each player and each pair of edges. A
+// group of the player's stones is one node, since a path that enters it
+// can leave it anywhere. First empty cells are peeled: a cell with fewer
+// than two ways to continue a path (distinct neighbouring nodes, plus one
+// for each of the two edges it lies on) is in no minimal set, and removing it
+// may leave its neighbours with fewer. This removes dead ends, cells enclosed
+// by the opponent and cells that only touch one of the player's groups. Then
+// the cells left must be reachable from both edges. Both steps are sound but
+// not complete, so some dead cells may be kept.
+//
+// Only dead cells are removed. Dominated cells, live cells that are never
+// better than some other move, are kept: proving domination needs local
+// patterns of the position around the cell, which this class does not try.
+//
+// A MoveFilter keeps its work space between calls, so it allocates nothing
+// per call but must not be shared between threads.
+public class MoveFilter {
+    private final int size;
+    private final int cells;
+
+    // The piece on each cell: 0 empty, 1 white, 2 black
+    private final byte[] board;
+    // Empty cells found live for either player so far
+    private final boolean[] live;
+    // Cells still usable by the player being analysed
+    private final boolean[] open;
+    // The node of each cell: cells + the group index for a stone of the
+    // player being analysed, the cell itself for an empty cell
+    private final int[] node;
+    private final boolean[] fromFirst;
+    private final boolean[] fromSecond;
+    private final int[] queue;
+
+    public MoveFilter(int size) {
+        if (size <= 0) throw new IllegalArgumentException("Size must be positive");
+        this.size = size;
+        this.cells = size * size;
+        this.board = new byte[cells];
+        this.live = new boolean[cells];
+        this.open = new boolean[cells];
+        this.node = new int[cells];
+        this.fromFirst = new boolean[cells];
+        this.fromSecond = new boolean[cells];
+        this.queue = new int[cells];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Removes the dead cells from the first count entries of moves, keeping
+    // the order of the others, and returns the number left
+    // Returns 0 if every move is dead, which means the game will be drawn
+    public int filter(Game game, int[] moves, int count) {
+        analyse(game, size * size);
+        int kept = 0;
+        for (int i = 0; i < count; i++)
+            if (live[moves[i]]) moves[kept++] = moves[i];
+        return kept;
+    }
+
+    // True if the empty cell at row, col is dead in game
+    public boolean isDead(Game game, int row, int col) {
+        analyse(game, size * size);
+        return !live[row * size + col];
+    }
+
+    // True if every empty cell of game is dead, so that the game will be drawn
+    // Stops at the first live cell found, so it is cheaper than filter()
+    public boolean isDrawn(Game game) {
+        return analyse(game, 1) == 0;
+    }
+
+    // Finds the live empty cells of game and returns how many were found
+    // Stops once enough are found or every empty cell is known to be live,
+    // which in the middle of the game usually happens after the first player
+    // and direction
+    private int analyse(Game game, int enough) {
+        if (game.getSize() != size) throw new IllegalArgumentException("Board size does not match");
+        int empty = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            PieceColour piece = game.getPiece(cell / size, cell % size);
+            board[cell] = (byte) (piece == PieceColour.WHITE ? 1 : piece == PieceColour.BLACK ? 2 : 0);
+            if (piece == PieceColour.NONE) empty++;
+        }
+        Arrays.fill(live, false);
+        int found = 0;
+        for (int pass = 0; pass < 4 && found < empty && found < enough; pass++)
+            found += mark(1 + (pass >> 1), (pass & 1) == 0);
+        return found;
+    }
+
+    // Marks the empty cells on a path of piece between the left and right
+    // edges if horizontal is true, or between the top and bottom edges
+    // Returns the number of cells newly marked live
+    private int mark(int piece, boolean horizontal) {
+        for (int cell = 0; cell < cells; cell++) {
+            open[cell] = board[cell] == 0 || board[cell] == piece;
+            node[cell] = -1;
+        }
+        label(piece);
+
+        // Peel empty cells that cannot be inside a minimal path; a cell is
+        // closed as soon as it is queued
+        int tail = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (board[cell] == 0 && open[cell] && degree(cell, horizontal) < 2) {
+                open[cell] = false;
+                queue[tail++] = cell;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int cell = queue[head];
+            int r = cell / size, c = cell % size;
+            if (r > 0) tail = peel(cell - size, horizontal, tail);
+            if (r < size - 1) tail = peel(cell + size, horizontal, tail);
+            if (c > 0) tail = peel(cell - 1, horizontal, tail);
+            if (c < size - 1) tail = peel(cell + 1, horizontal, tail);
+        }
+
+        // Keep the cells reachable from both edges
+        flood(fromFirst, horizontal, 0);
+        flood(fromSecond, horizontal, size - 1);
+        int found = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (board[cell] == 0 && !live[cell] && open[cell] && fromFirst[cell] && fromSecond[cell]) {
+                live[cell] = true;
+                found++;
+            }
+        }
+        return found;
+    }
+
+    // The number of the two edges being connected that a row or column index lies on
+    private int edges(int index) {
+        return (index == 0 ? 1 : 0) + (index == size - 1 ? 1 : 0);
+    }
+
+    // Numbers the groups of piece, filling node for every cell
+    private void label(int piece) {
+        int groups = 0;
+        for (int start = 0; start < cells; start++) {
+            if (board[start] == 0) node[start] = start;
+            if (board[start] != piece || node[start] >= 0) continue;
+            int id = cells + groups++;
+            node[start] = id;
+            int tail = 0;
+            queue[tail++] = start;
+            for (int head = 0; head < tail; head++) {
+                int cell = queue[head];
+                int r = cell / size, c = cell % size;
+                if (r > 0) tail = join(cell - size, piece, id, tail);
+                if (r < size - 1) tail = join(cell + size, piece, id, tail);
+                if (c > 0) tail = join(cell - 1, piece, id, tail);
+                if (c < size - 1) tail = join(cell + 1, piece, id, tail);
+            }
+        }
+    }
+
+    private int join(int cell, int piece, int id, int tail) {
+        if (board[cell] == piece && node[cell] < 0) {
+            node[cell] = id;
+            queue[tail++] = cell;
+        }
+        return tail;
+    }
+
+    // The number of ways to continue a path through an empty cell: its
+    // distinct open neighbouring nodes, plus the edges being connected it lies on
+    private int degree(int cell, boolean horizontal) {
+        int r = cell / size, c = cell % size;
+        int a = r > 0 && open[cell - size] ? node[cell - size] : -1;
+        int b = r < size - 1 && open[cell + size] ? node[cell + size] : -1;
+        int d = c > 0 && open[cell - 1] ? node[cell - 1] : -1;
+        int e = c < size - 1 && open[cell + 1] ? node[cell + 1] : -1;
+        int count = horizontal ? edges(c) : edges(r);
+        if (a >= 0) count++;
+        if (b >= 0 && b != a) count++;
+        if (d >= 0 && d != a && d != b) count++;
+        if (e >= 0 && e != a && e != b && e != d) count++;
+        return count;
+    }
+
+    // Closes and queues an open empty neighbour of a peeled cell if it now
+    // has fewer than two ways to continue a path
+    private int peel(int cell, boolean horizontal, int tail) {
+        if (board[cell] == 0 && open[cell] && degree(cell, horizontal) < 2) {
+            open[cell] = false;
+            queue[tail++] = cell;
+        }
+        return tail;
+    }
+
+    // Marks in reached the open cells connected to the open cells of the edge
+    // at line (a column if horizontal, otherwise a row)
+    private void flood(boolean[] reached, boolean horizontal, int line) {
+        Arrays.fill(reached, false);
+        int tail = 0;
+        for (int i = 0; i < size; i++) {
+            int cell = horizontal ? i * size + line : line * size + i;
+            if (open[cell]) {
+                reached[cell] = true;
+                queue[tail++] = cell;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int cell = queue[head];
+            int r = cell / size, c = cell % size;
+            if (r > 0) tail = reach(reached, cell - size, tail);
+            if (r < size - 1) tail = reach(reached, cell + size, tail);
+            if (c > 0) tail = reach(reached, cell - 1, tail);
+            if (c < size - 1) tail = reach(reached, cell + 1, tail);
+        }
+    }
+
+    private int reach(boolean[] reached, int cell, int tail) {
+        if (open[cell] && !reached[cell]) {
+            reached[cell] = true;
+            queue[tail++] = cell;
+        }
+        return tail;
+    }
+}
@@ -0,0 +1,121 @@
+package ai;
+
+import java.util.Random;
+
+// Orders the moves at each node of a search so that the move most likely to
+// cause a beta cutoff is searched first. Moves are flat cell indices
+// (row * size + col) and are ranked in stages:
+//   1. the hash move (the best move stored in the transposition table)
+//   2. the two killer moves of the current ply (recent cutoff moves of siblings)
+//   3. the history score of the cell (cutoffs it caused anywhere in the tree)
+//   4. closeness to the centre of the board
+// Ties in the last stage can optionally be broken with a seeded Random.
+// Moves are picked lazily with next(), so a node that cuts off after the first
+// move does not pay for sorting the rest. All buffers are allocated up front.
+class MoveOrderer {
+    private static final long HASH_MOVE = Long.MAX_VALUE;
+    private static final long KILLER_1 = Long.MAX_VALUE - 1;
+    private static final long KILLER_2 = Long.MAX_VALUE - 2;
+
+    // Keys below the killers pack, from the top: history, centrality in 12
+    // bits and 12 bits of random tie-break. Both of the upper fields are
+    // capped so that none spills into the field above or the killer keys.
+    private static final int CENTRALITY_SHIFT = 12;
+    private static final int HISTORY_SHIFT = 24;
+    private static final int MAX_CENTRALITY = (1 << 12) - 1;
+    private static final long MAX_HISTORY = (1L << (62 - HISTORY_SHIFT)) - 1;
+
+    private final int size;
+    private final int[][] killers;
+    private final long[] history;
+    private final int[] centrality;
+    private final long[][] keys;
+    private final Random random;
+
+    // size is the side length of the board
+    // maxPly is the deepest ply that will be ordered, counting the root as ply 0
+    // random breaks ties between otherwise equal moves; null keeps the order deterministic
+    MoveOrderer(int size, int maxPly, Random random) {
+        int cells = size * size;
+        this.size = size;
+        this.killers = new int[maxPly + 1][2];
+        this.history = new long[cells];
+        this.centrality = new int[cells];
+        this.keys = new long[maxPly + 1][cells];
+        this.random = random;
+        for (int[] k : killers) {
+            k[0] = -1;
+            k[1] = -1;
+        }
+        // Twice the Manhattan distance to the centre, so odd sizes and even sizes are exact
+        for (int cell = 0; cell < cells; cell++) {
+            int r = cell / size, c = cell % size;
+            centrality[cell] = Math.min(MAX_CENTRALITY,
+                    2 * size - Math.abs(2 * r - (size - 1)) - Math.abs(2 * c - (size - 1)));
+        }
+    }
+
+    // The side length of the board this orderer was built for
+    int size() {
+        return size;
+    }
+
+    // The deepest ply this orderer can handle
+    int maxPly() {
+        return killers.length - 1;
+    }
+
+    // Computes the ordering key of every move at a node
+    // Must be called before next() for the same ply
+    void score(int ply, int[] moves, int count, int hashMove) {
+        long[] k = keys[ply];
+        int killer1 = killers[ply][0], killer2 = killers[ply][1];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (move == hashMove) k[i] = HASH_MOVE;
+            else if (move == killer1) k[i] = KILLER_1;
+            else if (move == killer2) k[i] = KILLER_2;
+            else {
+                long key = (Math.min(history[move], MAX_HISTORY) << HISTORY_SHIFT)
+                        | ((long) centrality[move] << CENTRALITY_SHIFT);
+                if (random != null) key |= random.nextInt(1 << CENTRALITY_SHIFT);
+                k[i] = key;
+            }
+        }
+    }
+
+    // Moves the best remaining move into position index and returns it
+    // The moves before index must already have been returned by next()
+    int next(int ply, int[] moves, int count, int index) {
+        long[] k = keys[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++)
+            if (k[i] > k[best]) best = i;
+        if (best != index) {
+            int move = moves[best]; moves[best] = moves[index]; moves[index] = move;
+            long key = k[best]; k[best] = k[index]; k[index] = key;
+        }
+        return moves[index];
+    }
+
+    // Records that move caused a beta cutoff at the given ply and remaining depth
+    void cutoff(int ply, int move, int depth) {
+        history[move] += (long) depth * depth;
+        int[] k = killers[ply];
+        if (k[0] != move) {
+            k[1] = k[0];
+            k[0] = move;
+        }
+    }
+
+    // Prepares for a new search: killers are cleared and history is halved,
+    // so recent cutoffs outweigh those from earlier moves of the game
+    void age() {
+        for (int[] k : killers) {
+            k[0] = -1;
+            k[1] = -1;
+        }
+        for (int i = 0; i < history.length; i++)
+            history[i] >>= 1;
+    }
+}
@@ -0,0 +1,137 @@
+package ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import game.*;
+
+// A read-only table of precomputed moves for early positions
+// The book is a file of fixed-size entries sorted by position hash. It is
+// memory-mapped rather than read, so opening a book costs no heap beyond
+// this object, the pages are shared by every process using the same file,
+// and a lookup is a binary search over the mapping.
+// Positions are keyed by their canonical hash (see Symmetry), so one entry
+// serves every rotation and reflection of a position. The move
+// is stored in the canonical orientation and mapped back on lookup.
+//
+// File format (big-endian):
+//   header  int magic ("HXOB"), int version, int board size, int entry count
+//   entry   long canonical hash, short move (row * size + column) in the
+//           canonical orientation, short depth
+// Entries are sorted by hash as signed longs and hashes are unique.
+// Files are written by write(), normally from OpeningBookGenerator.
+public class OpeningBook {
+    private static final int MAGIC = 0x48584F42;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 12;
+
+    private final ByteBuffer entries;
+    private final int size;
+    private final int count;
+
+    private OpeningBook(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+            throw new IllegalArgumentException("Not an opening book");
+        if (buffer.getInt(4) != VERSION)
+            throw new IllegalArgumentException("Unsupported opening book version " + buffer.getInt(4));
+        this.size = buffer.getInt(8);
+        this.count = buffer.getInt(12);
+        if (size <= 0 || count < 0 || buffer.remaining() != HEADER_BYTES + (long) count * ENTRY_BYTES)
+            throw new IllegalArgumentException("Corrupt opening book");
+        this.entries = buffer.position(HEADER_BYTES).slice();
+    }
+
+    // Maps the book stored in file
+    // Throws IllegalArgumentException if the file is not a valid book
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(buffer);
+        }
+    }
+
+    // The board size the book was generated for
+    public int getSize() {
+        return size;
+    }
+
+    // The number of positions in the book
+    public int getCount() {
+        return count;
+    }
+
+    // Returns the book move for game, or null if the position is not in the book
+    // A move that does not fit the position (a hash collision) is never returned
+    public Move lookup(Game game) {
+        if (game.getSize() != size || game.isOver()) return null;
+        int symmetry = Symmetry.canonical(game);
+        int stored = lookup(game.hash(symmetry));
+        if (stored < 0 || stored >= size * size) return null;
+        int cell = Symmetry.apply(Symmetry.inverse(symmetry), stored, size);
+        int row = cell / size, col = cell % size;
+        if (game.getPiece(row, col) != PieceColour.NONE) return null;
+        return new MoveImpl(row, col);
+    }
+
+    // Returns the move stored for a canonical hash as a cell index in the
+    // canonical orientation, or -1
+    public int lookup(long hash) {
+        int index = find(hash);
+        return index < 0 ? -1 : entries.getShort(index * ENTRY_BYTES + 8) & 0xFFFF;
+    }
+
+    // Returns the search depth the move stored for a canonical hash came from, or -1
+    public int depth(long hash) {
+        int index = find(hash);
+        return index < 0 ? -1 : entries.getShort(index * ENTRY_BYTES + 10);
+    }
+
+    // Binary search for the entry with the given hash; returns its index or -1
+    private int find(long hash) {
+        int low = 0, high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long key = entries.getLong(mid * ENTRY_BYTES);
+            if (key < hash) low = mid + 1;
+            else if (key > hash) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    // Writes a book for the given board size to file
+    // Entry i maps the canonical hash hashes[i] to moves[i], a cell index in
+    // the canonical orientation, found at depths[i];
+    // the first count entries are used, and the arrays are not modified
+    // Throws IllegalArgumentException if a hash appears twice
+    public static void write(Path file, int size, long[] hashes, int[] moves, int[] depths, int count)
+            throws IOException {
+        if (size <= 0 || size * size > 0xFFFF) throw new IllegalArgumentException("Invalid board size " + size);
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + count * ENTRY_BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(count);
+        for (int i = 0; i < count; i++) {
+            int e = order[i];
+            if (i > 0 && hashes[e] == hashes[order[i - 1]])
+                throw new IllegalArgumentException("Duplicate position hash " + hashes[e]);
+            if (moves[e] < 0 || moves[e] >= size * size)
+                throw new IllegalArgumentException("Invalid move " + moves[e]);
+            buffer.putLong(hashes[e]).putShort((short) moves[e]).putShort((short) depths[e]);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package ai;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import game.*;
+
+// Builds an opening book offline by searching every position reachable in
+// the first few moves from the empty board
+// Positions reached by different move orders, and positions that are
+// symmetric to one already searched, are searched once. Each search
+// uses Minimax with MinPiecesHeuristic and one transposition table shared by
+// all positions, so later positions reuse the work of earlier ones.
+//
+// Usage: java ai.OpeningBookGenerator [options] FILE
+// Options:
+//   -size N      board size (default 5)
+//   -plies N     book positions have at most N stones (default 2)
+//   -depth N     search depth per position (default 7)
+//   -millis N    time limit per position, 0 for none (default 0)
+//   -threads N   search threads (default: number of processors)
+public class OpeningBookGenerator {
+    private final int size;
+    private final int plies;
+    private final Minimax minimax;
+
+    private final Set<Long> seen = new HashSet<>();
+    private long[] hashes = new long[1024];
+    private int[] moves = new int[1024];
+    private int[] depths = new int[1024];
+    private int count;
+
+    public OpeningBookGenerator(int size, int plies, int depth, long millis, int threads) {
+        if (size <= 0) throw new IllegalArgumentException("Size must be positive");
+        if (plies < 0) throw new IllegalArgumentException("plies must not be negative");
+        this.size = size;
+        this.plies = plies;
+        this.minimax = new Minimax(depth, new MinPiecesHeuristic(), new TranspositionTable(1 << 22));
+        minimax.setTimeLimit(millis);
+        minimax.setThreads(threads);
+    }
+
+    // Searches every position and writes the book to file
+    public void generate(Path file) throws IOException {
+        visit(new GameImpl(size), 0);
+        OpeningBook.write(file, size, hashes, moves, depths, count);
+    }
+
+    // The number of positions searched so far
+    public int getCount() {
+        return count;
+    }
+
+    // Adds the book move of game and recurses into every position one move later
+    private void visit(Game game, int stones) {
+        int symmetry = Symmetry.canonical(game);
+        if (game.isOver() || !seen.add(game.hash(symmetry))) return;
+        Move best = minimax.getCurrentPlayerMove(game);
+        int canonicalMove = Symmetry.apply(symmetry, best.getRow() * size + best.getCol(), size);
+        add(game.hash(symmetry), canonicalMove, minimax.getSearchStats().getDepth());
+        if (stones == plies) return;
+        List<Move> next = new ArrayList<>(game.getMoves());
+        for (Move move : next) {
+            game.makeMove(move);
+            visit(game, stones + 1);
+            game.undoMove();
+        }
+    }
+
+    private void add(long hash, int move, int searchDepth) {
+        if (count == hashes.length) {
+            hashes = Arrays.copyOf(hashes, 2 * count);
+            moves = Arrays.copyOf(moves, 2 * count);
+            depths = Arrays.copyOf(depths, 2 * count);
+        }
+        hashes[count] = hash;
+        moves[count] = move;
+        depths[count] = searchDepth;
+        count++;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int size = 5, plies = 2, depth = 7, threads = Runtime.getRuntime().availableProcessors();
+        long millis = 0;
+        String file = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-size": size = Integer.parseInt(args[++i]); break;
+                case "-plies": plies = Integer.parseInt(args[++i]); break;
+                case "-depth": depth = Integer.parseInt(args[++i]); break;
+                case "-millis": millis = Long.parseLong(args[++i]); break;
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                default: file = args[i];
+            }
+        }
+        if (file == null) {
+            System.out.println("Usage: java ai.OpeningBookGenerator [-size N] [-plies N] [-depth N] "
+                    + "[-millis N] [-threads N] FILE");
+            return;
+        }
+
+        long start = System.nanoTime();
+        OpeningBookGenerator generator = new OpeningBookGenerator(size, plies, depth, millis, threads);
+        generator.generate(Path.of(file));
+        System.out.printf("Wrote %d positions to %s in %.1f s%n", generator.getCount(), file,
+                (System.nanoTime() - start) / 1e9);
+    }
+}
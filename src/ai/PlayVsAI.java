@@ -12,7 +12,22 @@ public class PlayVsAI {
         // Decrease the depth to make the AI faster, but less powerful
         // Increase the depth to make the AI slower, but more powerful
         // The AI gets very slow very quickly as the depth increases!
-        AI ai = new Minimax(5, new MinPiecesHeuristic());
+        Minimax ai = new Minimax(5, new MinPiecesHeuristic());
+
+        // Alternatively, give the AI a fixed amount of time per move (in milliseconds)
+        // It then searches one move deeper at a time until the time runs out,
+        // so a large depth above only acts as an upper bound
+        // ai.setTimeLimit(2000);
+
+        // Early moves can be played instantly from an opening book
+        // made with ai.OpeningBookGenerator
+        // ai.setOpeningBook(OpeningBook.open(java.nio.file.Path.of("book5.bin")));
+
+        // The AI searches the likely replies while you think, and answers
+        // at once if it already searched the one you played
+        // Set this to false to make the AI idle on your time
+        boolean ponder = true;
+        Ponderer ponderer = new Ponderer(ai);
 
         // Change this to PieceColour.BLACK if you want to play as white
         PieceColour aiColour = PieceColour.WHITE;
@@ -22,14 +37,19 @@ public class PlayVsAI {
         do {
             System.out.println("The current player is " + game.currentPlayer());
             System.out.println("The game grid:");
-            System.out.println(game.getGrid());
+            System.out.println(game.view());
             if (game.currentPlayer() == aiColour) {
                 // AI turn
-                Move move = ai.getCurrentPlayerMove(game);
-                System.out.println("AI move: " + move);
+                long start = System.nanoTime();
+                Move move = ponderer.getCurrentPlayerMove(game);
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                System.out.println("AI move: " + move + " (" + millis + " ms"
+                        + (ponderer.wasPonderHit() ? ", pondered" : "") + ")");
+                System.out.println("Search: " + ponderer.getSearchStats());
                 game.makeMove(move);
             } else {
                 // Human turn
+                if (ponder) ponderer.ponder(game);
 
                 // First, show the moves
                 System.out.println("Your turn. Please enter a move number to make a move.");
@@ -54,10 +74,11 @@ public class PlayVsAI {
                 }
             }
         } while (!game.isOver());
+        ponderer.stop();
         
         System.out.println("Game over!");
         System.out.println("The final game grid:");
-        System.out.println(game.getGrid());
+        System.out.println(game.view());
         if (game.winner() == aiColour)
             System.out.println("The winner is the AI!");
         else if (game.winner() != PieceColour.NONE)
@@ -0,0 +1,157 @@
+package ai;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import game.*;
+
+// Searches on the opponent's time
+// While the opponent thinks, ponder() starts a background thread that guesses
+// their replies and searches the position after each one, keeping the move
+// found for every search that finished. When the opponent's move arrives,
+// getCurrentPlayerMove() stops the thread and plays the kept move at once if
+// that reply was searched. Otherwise it searches as usual, but the
+// transposition table of the engine is already warm from pondering, so the
+// search is still faster than it would have been.
+//
+// The likely reply is the move the engine itself would play in the
+// opponent's place, so it is searched first. Then come the other replies,
+// up to maxReplies of them in all, which on small boards can be every reply.
+//
+// The engine must only be used through the Ponderer while it ponders: its
+// searches run one at a time, on the background thread while pondering and
+// on the caller's thread otherwise.
+public class Ponderer implements AI {
+    // A move found by pondering, with the statistics of its search
+    private static final class Result {
+        final Move move;
+        final SearchStats stats;
+
+        Result(Move move, SearchStats stats) {
+            this.move = move;
+            this.stats = stats;
+        }
+    }
+
+    private final Minimax engine;
+    private final int maxReplies;
+
+    // Moves found for the positions after each pondered reply, by hash
+    private final Map<Long, Result> results = new ConcurrentHashMap<>();
+    private Thread thread;
+    private long ponderedHash;
+    private int ponderedSize;
+    private volatile boolean stopping;
+
+    // Statistics of the last call to getCurrentPlayerMove
+    private SearchStats lastStats = new SearchStats();
+    private boolean lastHit;
+
+    // Ponders every reply
+    public Ponderer(Minimax engine) {
+        this(engine, Integer.MAX_VALUE);
+    }
+
+    // Ponders the likely reply and then others, up to maxReplies in all
+    public Ponderer(Minimax engine, int maxReplies) {
+        if (maxReplies < 1) throw new IllegalArgumentException("maxReplies must be positive");
+        this.engine = engine;
+        this.maxReplies = maxReplies;
+    }
+
+    // Starts pondering game, in which the opponent is to move
+    // Does nothing if game is over or is already being pondered
+    // The game is copied, so the caller may go on using it
+    public void ponder(Game game) {
+        if (game.isOver()) return;
+        if (thread != null && thread.isAlive() && ponderedHash == game.hash()
+                && ponderedSize == game.getSize()) return;
+        stop();
+        results.clear();
+        ponderedHash = game.hash();
+        ponderedSize = game.getSize();
+        Game board = game.copy();
+        stopping = false;
+        thread = new Thread(() -> run(board), "ponderer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Stops pondering and waits for the background thread to finish
+    // The moves found so far are kept for getCurrentPlayerMove
+    public void stop() {
+        if (thread == null) return;
+        stopping = true;
+        // A search may start just after a stop request and miss it, so the
+        // request is repeated until the thread is done
+        while (thread.isAlive()) {
+            engine.stop();
+            try {
+                thread.join(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        thread = null;
+    }
+
+    // The number of replies searched to the end since ponder was last called
+    public int getPonderedCount() {
+        return results.size();
+    }
+
+    // True if the last call to getCurrentPlayerMove played a pondered move
+    public boolean wasPonderHit() {
+        return lastHit;
+    }
+
+    @Override
+    public Move getCurrentPlayerMove(Game game) {
+        stop();
+        Result result = game.getSize() == ponderedSize ? results.get(game.hash()) : null;
+        results.clear();
+        lastHit = result != null;
+        if (lastHit) {
+            lastStats = result.stats;
+            return result.move;
+        }
+        Move move = engine.getCurrentPlayerMove(game);
+        lastStats = engine.getSearchStats();
+        return move;
+    }
+
+    @Override
+    public SearchStats getSearchStats() {
+        return lastStats;
+    }
+
+    // The body of the background thread
+    private void run(Game board) {
+        int size = board.getSize();
+        int[] replies = new int[size * size];
+        int count = board.getMoves(replies);
+
+        // Put the likely reply first
+        Move likely = engine.getCurrentPlayerMove(board);
+        if (stopping) return;
+        int first = likely.getRow() * size + likely.getCol();
+        for (int i = 0; i < count; i++) {
+            if (replies[i] == first) {
+                replies[i] = replies[0];
+                replies[0] = first;
+                break;
+            }
+        }
+
+        for (int i = 0; i < Math.min(count, maxReplies) && !stopping; i++) {
+            board.makeMove(replies[i]);
+            if (!board.isOver()) {
+                Move move = engine.getCurrentPlayerMove(board);
+                // A stopped search is not kept, since it may be shallower than usual
+                if (!stopping) results.put(board.hash(), new Result(move, engine.getSearchStats()));
+            }
+            board.undoMove();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package ai;
+
+import java.util.Arrays;
+
+import game.*;
+
+// Solves positions exactly with depth-first proof-number search (df-pn)
+// A proof-number search proves or disproves a yes/no question about a
+// position. Every node carries a proof number, the number of leaves that
+// still have to be proved to answer yes, and a disproof number for no. The
+// search always works on a most-proving leaf, the one that does most to
+// settle the question, so it goes deep along forcing lines and needs neither
+// a heuristic nor a depth limit.
+//
+// df-pn finds the same leaves as the classic best-first search, but by a
+// depth-first recursion that only leaves a subtree once its numbers pass
+// thresholds set by its parent. No tree is kept: the numbers live in a
+// transposition table keyed by the canonical hash of the position (see
+// Symmetry), so transpositions and symmetric positions share their work and
+// memory use is fixed by the size of the table. A node also keeps the last
+// numbers of its children, so that a child whose entry was overwritten by
+// another position is not searched again from scratch. Positions not yet
+// searched start with a proof number of 1 and a disproof number equal to the
+// number of their siblings (at least 1), and a child may run until its proof
+// number passes the second best child's by a quarter (the 1 + epsilon
+// trick), which avoids switching back and forth between two nearly equal
+// children.
+//
+// Dead cells are left out of the move lists (see MoveFilter), and a position
+// in which every empty cell is dead counts as the draw it will end in, so
+// crowded positions are proved with far fewer nodes.
+//
+// The game can be won, lost or drawn, so solve() asks two questions of the
+// player to move: "can I win?" and, if not, "can I at least draw?". Numbers
+// are kept in the negamax form: phi is the proof number for the goal of the
+// player to move at that node and delta its disproof number.
+public class ProofNumberSearch {
+    // The value of a position for the player to move
+    public enum Result { WIN, DRAW, LOSS, UNKNOWN }
+
+    // Proof numbers at or above this are infinite; sums are capped here
+    private static final int INF = Integer.MAX_VALUE / 2;
+
+    // The deadline is checked once every this many nodes (a power of two)
+    private static final int CLOCK_INTERVAL = 1024;
+
+    // Number of slots in the table created by the one-argument constructor
+    private static final int DEFAULT_TABLE_SLOTS = 1 << 20;
+
+    private final long maxNodes;
+
+    // Transposition table: key, phi and delta of each slot
+    private final long[] keys;
+    private final int[] phis;
+    private final int[] deltas;
+    private final int mask;
+
+    // The position being solved, and move lists per ply
+    private Game board;
+    private int size;
+    private int[][] moves;
+    private long[][] childKeys;
+    // The last numbers known for each child, for when its table entry has
+    // been overwritten
+    private int[][] childPhis;
+    private int[][] childDeltas;
+    private int[] counts;
+    private PieceColour rootPlayer;
+    private MoveFilter filter;
+    // True while asking "can I at least draw?" rather than "can I win?"
+    private boolean drawIsEnough;
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+    // Set by stop() from another thread
+    private volatile boolean stopRequested;
+
+    // Results of the last call to solve
+    private int bestMove = -1;
+    private long totalNodes;
+
+    // maxNodes is the largest number of positions a call to solve may visit
+    public ProofNumberSearch(long maxNodes) {
+        this(DEFAULT_TABLE_SLOTS, maxNodes);
+    }
+
+    // tableSlots is the number of positions the table can hold (rounded up to
+    // a power of two), which fixes the memory used
+    public ProofNumberSearch(int tableSlots, long maxNodes) {
+        if (tableSlots < 1) throw new IllegalArgumentException("tableSlots must be positive");
+        if (maxNodes < 1) throw new IllegalArgumentException("maxNodes must be positive");
+        int capacity = Integer.highestOneBit(tableSlots);
+        if (capacity < tableSlots) capacity <<= 1;
+        this.keys = new long[capacity];
+        this.phis = new int[capacity];
+        this.deltas = new int[capacity];
+        this.mask = capacity - 1;
+        this.maxNodes = maxNodes;
+    }
+
+    // Solves the position without a time limit
+    public Result solve(Game game) {
+        return solve(game, 0);
+    }
+
+    // Solves the position for the player to move
+    // timeLimit is the time allowed in nanoseconds, or 0 for no limit
+    // The game is not modified
+    public Result solve(Game game, long timeLimit) {
+        totalNodes = 0;
+        bestMove = -1;
+        stopRequested = false;
+        if (game.isOver()) return Result.UNKNOWN;
+        deadline = timeLimit > 0 ? System.nanoTime() + timeLimit : 0;
+        board = game.copy();
+        rootPlayer = board.currentPlayer();
+        if (moves == null || size != board.getSize()) {
+            size = board.getSize();
+            int cells = size * size;
+            moves = new int[cells + 1][cells];
+            childKeys = new long[cells + 1][cells];
+            childPhis = new int[cells + 1][cells];
+            childDeltas = new int[cells + 1][cells];
+            counts = new int[cells + 1];
+            filter = new MoveFilter(size);
+        }
+
+        try {
+            drawIsEnough = false;
+            int win = prove();
+            if (win < 0) return Result.UNKNOWN;
+            if (win == 1) return Result.WIN;
+            drawIsEnough = true;
+            int draw = prove();
+            if (draw < 0) return Result.UNKNOWN;
+            return draw == 1 ? Result.DRAW : Result.LOSS;
+        } finally {
+            board = null;
+        }
+    }
+
+    // Makes a solve() running on another thread give up as soon as possible
+    // and return UNKNOWN; has no effect on a solve() that starts later
+    public void stop() {
+        stopRequested = true;
+    }
+
+    // The move that achieves the result of the last solve(), if it was WIN or DRAW
+    // Returns null after LOSS or UNKNOWN
+    public Move getBestMove() {
+        return bestMove < 0 ? null : new MoveImpl(bestMove / size, bestMove % size);
+    }
+
+    // The number of positions visited by the last solve()
+    public long getNodeCount() {
+        return totalNodes;
+    }
+
+    // Answers the current question for the root position
+    // Returns 1 if it was proved, 0 if it was disproved, -1 if the budget ran out
+    private int prove() {
+        Arrays.fill(keys, 0);
+        nodes = 0;
+        aborted = false;
+        int phi = (int) (search(0, INF, INF) >>> 32);
+        totalNodes += nodes;
+        if (aborted) return -1;
+        return phi == 0 ? 1 : 0;
+    }
+
+    // Searches the board position until its phi reaches thresholdPhi or its
+    // delta reaches thresholdDelta, stores its numbers in the table and
+    // returns them, phi in the high half and delta in the low half
+    // At the root, a proof also leaves the proving move in bestMove
+    private long search(int ply, int thresholdPhi, int thresholdDelta) {
+        if ((++nodes & (CLOCK_INTERVAL - 1)) == 0
+                && (stopRequested || deadline != 0 && System.nanoTime() - deadline > 0))
+            aborted = true;
+        if (nodes >= maxNodes) aborted = true;
+
+        long key = Symmetry.canonicalHash(board);
+        int count = generate(ply);
+        if (count == 0) {
+            // Only dead cells are left, so the game will be drawn
+            int phi = drawReaches(ply) ? 0 : INF;
+            store(key, phi, INF - phi);
+            return numbers(phi, INF - phi);
+        }
+        int[] list = moves[ply];
+        while (true) {
+            // phi is the smallest delta of a child, delta the sum of their phis
+            int phi = INF, second = INF, best = 0;
+            long delta = 0;
+            for (int i = 0; i < count; i++) {
+                int childDelta = delta(ply, i);
+                if (childDelta < phi) {
+                    second = phi;
+                    phi = childDelta;
+                    best = i;
+                } else if (childDelta < second) {
+                    second = childDelta;
+                }
+                delta += phi(ply, i);
+            }
+            int sum = (int) Math.min(delta, INF);
+            store(key, phi, sum);
+            if (phi >= thresholdPhi || sum >= thresholdDelta || aborted) {
+                // The best child of a proved node is one its player to move loses
+                if (ply == 0 && phi == 0) bestMove = list[best];
+                return numbers(phi, sum);
+            }
+
+            // The child may use the parent's slack on delta, and must stay
+            // below the second best child on phi
+            int childPhi = phi(ply, best);
+            int childThresholdPhi = (int) Math.min((long) thresholdDelta - sum + childPhi, INF);
+            int childThresholdDelta = Math.min(thresholdPhi, second >= INF ? INF : (int) Math.min(second + 1L + second / 4, INF));
+            board.makeMove(list[best]);
+            // The child's entry may share a slot with this node's and be
+            // overwritten by the next store, so its numbers are kept here too
+            long child = search(ply + 1, childThresholdPhi, childThresholdDelta);
+            board.undoMove();
+            childPhis[ply][best] = (int) (child >>> 32);
+            childDeltas[ply][best] = (int) child;
+        }
+    }
+
+    // Writes the live cells of the board into the move list of ply and the
+    // canonical hash of each child position into its key list
+    // Returns 0 if every cell is dead, except at the root, which keeps all of
+    // them so that it still has a move to play
+    // A child that ends the game gets key 0 and is scored by phi() and delta()
+    private int generate(int ply) {
+        int[] list = moves[ply];
+        long[] children = childKeys[ply];
+        int count = board.getMoves(list);
+        int live = filter.filter(board, list, count);
+        if (live > 0 || ply > 0) count = live;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(list[i]);
+            // Encode a finished game as 0 (loss for the child) or 1 (draw) instead of a hash
+            children[i] = board.isOver() ? (board.winner() == PieceColour.NONE ? 1 : 0)
+                    : Symmetry.canonicalHash(board) | 2;
+            board.undoMove();
+        }
+        counts[ply] = count;
+        Arrays.fill(childPhis[ply], 0, count, 1);
+        Arrays.fill(childDeltas[ply], 0, count, Math.max(1, count - 1));
+        return count;
+    }
+
+    // The proof number of child i of ply for the goal of its player to move
+    private int phi(int ply, int i) {
+        long key = childKeys[ply][i];
+        if (key == 0) return INF;
+        if (key == 1) return drawReaches(ply + 1) ? 0 : INF;
+        int slot = slot(key);
+        return keys[slot] == key ? phis[slot] : childPhis[ply][i];
+    }
+
+    // The disproof number of child i of ply for the goal of its player to move
+    private int delta(int ply, int i) {
+        long key = childKeys[ply][i];
+        if (key == 0) return 0;
+        if (key == 1) return drawReaches(ply + 1) ? INF : 0;
+        int slot = slot(key);
+        return keys[slot] == key ? deltas[slot] : childDeltas[ply][i];
+    }
+
+    // True if a draw meets the goal of the player to move at ply
+    // The root player needs a win in the first question; the opponent then
+    // only needs to stop that, and the roles reverse in the second question
+    private boolean drawReaches(int ply) {
+        boolean root = (ply & 1) == 0;
+        return root == drawIsEnough;
+    }
+
+    private static long numbers(int phi, int delta) {
+        return (long) phi << 32 | delta;
+    }
+
+    private int slot(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    private void store(long key, int phi, int delta) {
+        key |= 2;
+        int slot = slot(key);
+        keys[slot] = key;
+        phis[slot] = phi;
+        deltas[slot] = delta;
+    }
+}
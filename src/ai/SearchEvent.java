@@ -0,0 +1,36 @@
+package ai;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// A JDK Flight Recorder event for one iteration of an iterative deepening search
+// The event's duration is the time the iteration took
+// Like every JFR event it costs next to nothing unless a recording enables it
+@Name("ai.Search")
+@Label("Search Iteration")
+@Category({ "Game AI" })
+@Description("One depth of an iterative deepening search")
+class SearchEvent extends Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("Board Size")
+    int boardSize;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Nodes")
+    @Description("Nodes visited by this thread during the iteration")
+    long nodes;
+
+    @Label("Score")
+    long score;
+
+    @Label("Best Move")
+    @Description("The best move found, as a cell index row * size + column")
+    int bestMove;
+}
@@ -0,0 +1,140 @@
+package ai;
+
+import java.util.Arrays;
+
+// Counters describing what one search did
+// An AI fills a SearchStats while it chooses a move and hands it out through
+// AI.getSearchStats() afterwards. Each search thread counts into its own
+// instance, and the instances are combined with add() when the search ends,
+// so counting needs no synchronisation.
+//
+// A node is a position the search visited, and a leaf evaluation a position
+// it scored without looking further (a heuristic call or a random playout).
+// Beta cutoffs are counted by the index of the move that caused them in the
+// node's move order: index 0 means the first move tried was already good
+// enough. Indices from CUTOFF_BUCKETS - 1 up share the last bucket.
+public class SearchStats {
+    // Number of move indices that cutoffs are split into
+    public static final int CUTOFF_BUCKETS = 8;
+
+    private long nodes;
+    private long leafEvaluations;
+    private final long[] cutoffs = new long[CUTOFF_BUCKETS];
+    private int depth;
+    private long elapsedNanos;
+
+    // Sets every counter back to zero
+    public void reset() {
+        nodes = 0;
+        leafEvaluations = 0;
+        Arrays.fill(cutoffs, 0);
+        depth = 0;
+        elapsedNanos = 0;
+    }
+
+    // Adds the counters of other to these
+    // The depth becomes the larger of the two; the elapsed time is kept,
+    // since threads of one search run at the same time
+    public void add(SearchStats other) {
+        nodes += other.nodes;
+        leafEvaluations += other.leafEvaluations;
+        for (int i = 0; i < CUTOFF_BUCKETS; i++) cutoffs[i] += other.cutoffs[i];
+        depth = Math.max(depth, other.depth);
+    }
+
+    // Counts one visited node
+    public void node() {
+        nodes++;
+    }
+
+    // Counts several visited nodes at once
+    public void addNodes(long count) {
+        nodes += count;
+    }
+
+    // Counts one leaf evaluation
+    public void leaf() {
+        leafEvaluations++;
+    }
+
+    // Counts a beta cutoff caused by the move at the given index of the move order
+    public void cutoff(int index) {
+        cutoffs[Math.min(index, CUTOFF_BUCKETS - 1)]++;
+    }
+
+    // Records the deepest search depth completed
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    // Records the wall-clock time the search took
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getLeafEvaluations() {
+        return leafEvaluations;
+    }
+
+    // The total number of beta cutoffs
+    public long getCutoffs() {
+        long total = 0;
+        for (long count : cutoffs) total += count;
+        return total;
+    }
+
+    // The number of beta cutoffs caused by the move at the given index
+    // The last bucket also counts every later index
+    public long getCutoffs(int index) {
+        if (index < 0 || index >= CUTOFF_BUCKETS)
+            throw new IllegalArgumentException("index must be between 0 and " + (CUTOFF_BUCKETS - 1));
+        return cutoffs[index];
+    }
+
+    // The fraction of beta cutoffs caused by the first move tried
+    // Values close to 1 mean the move ordering is working well
+    public double getFirstMoveCutoffRate() {
+        long total = getCutoffs();
+        return total == 0 ? 0 : (double) cutoffs[0] / total;
+    }
+
+    // The deepest search depth completed, in moves
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // Nodes visited per second of wall-clock time, summed over all threads
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    // Leaf evaluations per second of wall-clock time, summed over all threads
+    // For MCTS this is the playout rate
+    public double getLeafEvaluationsPerSecond() {
+        return elapsedNanos == 0 ? 0 : leafEvaluations * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("depth %d, %d nodes, %d leaves, %.1f ms, %.0f nodes/s, %.0f leaves/s",
+                depth, nodes, leafEvaluations, elapsedNanos / 1e6, getNodesPerSecond(),
+                getLeafEvaluationsPerSecond()));
+        long total = getCutoffs();
+        if (total > 0) {
+            sb.append(String.format(", %d cutoffs (%.0f%% first move; by index:", total,
+                    100 * getFirstMoveCutoffRate()));
+            for (int i = 0; i < CUTOFF_BUCKETS; i++) sb.append(' ').append(cutoffs[i]);
+            sb.append(')');
+        }
+        return sb.toString();
+    }
+}
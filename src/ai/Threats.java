@@ -0,0 +1,155 @@
+package ai;
+
+import game.*;
+
+// Finds the must-play region of a position: the cells the player to move
+// has to play in so as not to lose at once.
+// A completion of a player is a set of empty cells that would connect two
+// opposite edges for that player; the minimum ones are the shortest paths of
+// ConnectionDistance. When the opponent's distance is 1 every minimum
+// completion is a single cell, and the player to move must take one of them:
+// after any other move the opponent plays it and wins. If there are two or
+// more, every move loses, and the region still holds the best tries.
+// The player to move can of course win first, so their own winning cells
+// come before everything else. Either way the value of the position is then
+// known without searching: a win if the player to move has a winning cell,
+// and a loss if not and the opponent has two.
+//
+// A cell completes a connection exactly when the groups of stones next to
+// it, together with the cell itself, touch two opposite edges. So rather
+// than building both distance maps, each group is labelled once with the
+// edges it touches and every empty cell is then checked in constant time.
+// All buffers are allocated once per board size, so an analysis allocates
+// nothing. An instance is not thread safe; use one per thread.
+public class Threats {
+    // Edge mask bits
+    private static final int LEFT = 1, RIGHT = 2, TOP = 4, BOTTOM = 8;
+
+    private static final int EMPTY = 0, WHITE = 1, BLACK = 2;
+
+    private final int size;
+    private final int cells;
+
+    // Snapshot of the board, one entry per flat cell index
+    private final int[] board;
+    // Group index of each stone
+    private final int[] group;
+    // Edges touched by each group
+    private final int[] edges;
+    private final int[] queue;
+
+    // What the last call to restrict found
+    private boolean win;
+    private boolean block;
+
+    public Threats(int size) {
+        this.size = size;
+        this.cells = size * size;
+        this.board = new int[cells];
+        this.group = new int[cells];
+        this.edges = new int[cells];
+        this.queue = new int[cells];
+    }
+
+    // The side length of the board this instance was built for
+    public int size() {
+        return size;
+    }
+
+    // Restricts the first count entries of moves to the must-play region of
+    // game: the moves that win at once if there are any, otherwise the moves
+    // that stop an immediate win of the opponent if there are any
+    // Returns the number of moves left; if there is no threat, returns count
+    // and leaves the list unchanged
+    public int restrict(Game game, int[] moves, int count) {
+        load(game);
+        int own = game.currentPlayer() == PieceColour.WHITE ? WHITE : BLACK;
+        int wins = select(moves, count, own);
+        win = wins > 0;
+        block = false;
+        if (win) return wins;
+        int blocks = select(moves, count, WHITE + BLACK - own);
+        block = blocks > 0;
+        return block ? blocks : count;
+    }
+
+    // True if the last call to restrict found that the player to move can
+    // win at once; the moves left are the winning ones
+    public boolean win() {
+        return win;
+    }
+
+    // True if the last call to restrict found that the player to move must
+    // stop an immediate win of the opponent; the moves left are the ones
+    // that do, and if there is more than one the position is lost
+    public boolean block() {
+        return block;
+    }
+
+    // Moves the entries of moves that complete a connection for piece to the
+    // front, keeping their order, and returns how many there are
+    // The list is only changed if at least one is found
+    private int select(int[] moves, int count, int piece) {
+        int kept = 0;
+        for (int i = 0; i < count; i++)
+            if (completes(moves[i], piece)) moves[kept++] = moves[i];
+        return kept;
+    }
+
+    // True if a stone of piece on the empty cell would connect two opposite edges
+    private boolean completes(int cell, int piece) {
+        int r = cell / size, c = cell % size;
+        int mask = edgesOf(r, c);
+        if (r > 0 && board[cell - size] == piece) mask |= edges[group[cell - size]];
+        if (r < size - 1 && board[cell + size] == piece) mask |= edges[group[cell + size]];
+        if (c > 0 && board[cell - 1] == piece) mask |= edges[group[cell - 1]];
+        if (c < size - 1 && board[cell + 1] == piece) mask |= edges[group[cell + 1]];
+        return (mask & (LEFT | RIGHT)) == (LEFT | RIGHT) || (mask & (TOP | BOTTOM)) == (TOP | BOTTOM);
+    }
+
+    // The edges a single cell lies on
+    private int edgesOf(int r, int c) {
+        int mask = 0;
+        if (c == 0) mask |= LEFT;
+        if (c == size - 1) mask |= RIGHT;
+        if (r == 0) mask |= TOP;
+        if (r == size - 1) mask |= BOTTOM;
+        return mask;
+    }
+
+    // Copies the board of game and labels every group of stones with the
+    // edges it touches
+    private void load(Game game) {
+        for (int cell = 0; cell < cells; cell++) {
+            PieceColour piece = game.getPiece(cell / size, cell % size);
+            board[cell] = piece == PieceColour.WHITE ? WHITE : piece == PieceColour.BLACK ? BLACK : EMPTY;
+            group[cell] = -1;
+        }
+        int groups = 0;
+        for (int start = 0; start < cells; start++) {
+            if (board[start] == EMPTY || group[start] >= 0) continue;
+            int piece = board[start], id = groups++, mask = 0;
+            group[start] = id;
+            int tail = 0;
+            queue[tail++] = start;
+            for (int head = 0; head < tail; head++) {
+                int cell = queue[head];
+                int r = cell / size, c = cell % size;
+                mask |= edgesOf(r, c);
+                if (r > 0) tail = join(cell - size, piece, id, tail);
+                if (r < size - 1) tail = join(cell + size, piece, id, tail);
+                if (c > 0) tail = join(cell - 1, piece, id, tail);
+                if (c < size - 1) tail = join(cell + 1, piece, id, tail);
+            }
+            edges[id] = mask;
+        }
+    }
+
+    private int join(int cell, int piece, int id, int tail) {
+        if (board[cell] == piece && group[cell] < 0) {
+            group[cell] = id;
+            queue[tail++] = cell;
+        }
+        return tail;
+    }
+}
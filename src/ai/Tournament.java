@@ -0,0 +1,348 @@
+package ai;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import game.*;
+
+// Plays many games between two AI configurations without any user interaction
+// and reports the result, an Elo difference with a confidence interval, and
+// throughput, both in games and in the search rate of each engine (for MCTS,
+// leaves per second is its playout rate). Games run concurrently on a fixed pool of threads. Every game
+// builds its own instance of both AIs, since an AI keeps state between moves
+// (tables, move ordering, trees), so a game does not depend on which thread
+// played it or on the games played before it there.
+//
+// Engines are deterministic unless seeded, so every pair of games starts from
+// a few random opening moves. Both games of a pair use the same opening with
+// the colours swapped, which cancels out the advantage of an unbalanced opening.
+//
+// Usage: java ai.Tournament [options] A B
+// where A and B are engine specifications:
+//   minimax:<depth>[:incremental]   Minimax with MinPiecesHeuristic
+//                                   (or IncrementalMinPiecesHeuristic)
+//   minimax:<depth>:<millis>ms      Minimax with a time limit per move
+//   minimax:<depth>:pvs             Minimax with principal variation search
+//   minimax:<depth>:lmr             ... and late move reductions
+//                                   (options can be combined)
+//   mcts:<playouts>                 MCTS with a playout budget per move
+// Options:
+//   -games N      number of games (default 100, rounded up to an even number)
+//   -size N       board size (default 5)
+//   -threads N    games played at once (default: number of processors)
+//   -opening N    random moves before the engines take over (default 2)
+//   -seed N       seed for the random openings (default 1)
+//   -record FILE  write every game to FILE (see GameRecordWriter)
+public class Tournament {
+    // The outcome of a tournament, from A's point of view
+    public static class Result {
+        public final int wins, draws, losses;
+        public final long moves;
+        public final long nanos;
+        // The search statistics of every move of each engine added together,
+        // with the elapsed time the total time that engine spent searching
+        public final SearchStats statsA, statsB;
+
+        public Result(int wins, int draws, int losses, long moves, long nanos) {
+            this(wins, draws, losses, moves, nanos, new SearchStats(), new SearchStats());
+        }
+
+        public Result(int wins, int draws, int losses, long moves, long nanos,
+                      SearchStats statsA, SearchStats statsB) {
+            this.wins = wins;
+            this.draws = draws;
+            this.losses = losses;
+            this.moves = moves;
+            this.nanos = nanos;
+            this.statsA = statsA;
+            this.statsB = statsB;
+        }
+
+        public int games() {
+            return wins + draws + losses;
+        }
+
+        // A's average score per game, counting a draw as half a win
+        public double score() {
+            return (wins + 0.5 * draws) / games();
+        }
+
+        // The Elo difference between A and B implied by the score
+        public double elo() {
+            return elo(score());
+        }
+
+        // Half the width of the 95% confidence interval of elo(), in Elo points
+        // Returns infinity if one side won every game
+        // The interval on the score is a Wilson score interval, which stays
+        // inside (0, 1) unlike the normal approximation, so a near-sweep in a
+        // small sample still gets a finite bound. Draws make the score vary
+        // less than in games that are all won or lost, so the sample size is
+        // scaled up by the ratio of the two variances.
+        public double eloError() {
+            int n = games();
+            if (wins == n || losses == n) return Double.POSITIVE_INFINITY;
+            double p = score();
+            double variance = (wins * (1 - p) * (1 - p) + draws * (0.5 - p) * (0.5 - p)
+                    + losses * p * p) / n;
+            // Only a run of draws has no variance, and its score is exact
+            if (variance == 0) return 0;
+            double m = n * p * (1 - p) / variance;
+            double z = 1.96, z2 = z * z;
+            double centre = (p + z2 / (2 * m)) / (1 + z2 / m);
+            double half = z / (1 + z2 / m) * Math.sqrt(p * (1 - p) / m + z2 / (4 * m * m));
+            return (elo(centre + half) - elo(centre - half)) / 2;
+        }
+
+        public double gamesPerSecond() {
+            return games() * 1e9 / nanos;
+        }
+
+        public double movesPerSecond() {
+            return moves * 1e9 / nanos;
+        }
+
+        private static double elo(double p) {
+            if (p <= 0) return Double.NEGATIVE_INFINITY;
+            if (p >= 1) return Double.POSITIVE_INFINITY;
+            // Adding 0.0 turns -0.0 into 0.0 for even scores
+            return -400 * Math.log10(1 / p - 1) + 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Games: %d  A wins: %d  draws: %d  B wins: %d%n"
+                    + "Elo difference (A - B): %+.1f +/- %.1f (95%%)%n"
+                    + "Throughput: %.2f games/s, %.1f moves/s%n"
+                    + "Search A: %.0f nodes/s, %.0f leaves/s  B: %.0f nodes/s, %.0f leaves/s",
+                    games(), wins, draws, losses, elo(), eloError(),
+                    gamesPerSecond(), movesPerSecond(),
+                    statsA.getNodesPerSecond(), statsA.getLeafEvaluationsPerSecond(),
+                    statsB.getNodesPerSecond(), statsB.getLeafEvaluationsPerSecond());
+        }
+    }
+
+    private final Supplier<AI> engineA;
+    private final Supplier<AI> engineB;
+    private final int size;
+    private int openingMoves = 2;
+    private long seed = 1;
+    private GameRecordWriter recorder;
+    private String nameA = "A", nameB = "B";
+
+    // engineA and engineB create fresh instances of the two AIs being compared
+    // size is the board size of every game
+    public Tournament(Supplier<AI> engineA, Supplier<AI> engineB, int size) {
+        if (size <= 0) throw new IllegalArgumentException("Size must be positive");
+        this.engineA = engineA;
+        this.engineB = engineB;
+        this.size = size;
+    }
+
+    // Sets the number of random moves played before the engines take over
+    public void setOpeningMoves(int openingMoves) {
+        if (openingMoves < 0) throw new IllegalArgumentException("opening moves must not be negative");
+        this.openingMoves = openingMoves;
+    }
+
+    // Sets the seed of the random openings
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    // Writes every game played from now on to recorder, with the engines
+    // named nameA and nameB; pass null to stop recording
+    // The recorder is shared by all threads and is not closed
+    public void setRecorder(GameRecordWriter recorder, String nameA, String nameB) {
+        this.recorder = recorder;
+        this.nameA = nameA;
+        this.nameB = nameB;
+    }
+
+    // Plays the given number of games (rounded up to an even number) on the
+    // given number of threads, and returns the combined result
+    public Result play(int games, int threads) {
+        if (games < 1) throw new IllegalArgumentException("games must be at least 1");
+        if (threads < 1) throw new IllegalArgumentException("threads must be at least 1");
+        int total = games + (games & 1);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger wins = new AtomicInteger(), draws = new AtomicInteger(), losses = new AtomicInteger();
+        AtomicLong moves = new AtomicLong();
+        SearchStats statsA = new SearchStats(), statsB = new SearchStats();
+        List<Throwable> errors = new ArrayList<>();
+
+        Runnable worker = () -> {
+            int index;
+            while ((index = next.getAndIncrement()) < total) {
+                AI a = engineA.get(), b = engineB.get();
+                SearchStats gameA = new SearchStats(), gameB = new SearchStats();
+                // Game 2k and 2k + 1 share an opening; A is white in the even game
+                PieceColour colourA = (index & 1) == 0 ? PieceColour.WHITE : PieceColour.BLACK;
+                Game game = new GameImpl(size);
+                int[] played = new int[size * size];
+                int count = playOpening(game, new Random(seed * 1_000_003 + index / 2), played);
+                while (!game.isOver()) {
+                    AI ai = game.currentPlayer() == colourA ? a : b;
+                    Move move = ai.getCurrentPlayerMove(game);
+                    addStats(ai == a ? gameA : gameB, ai.getSearchStats());
+                    game.makeMove(move);
+                    played[count++] = move.getRow() * size + move.getCol();
+                    moves.incrementAndGet();
+                }
+                if (recorder != null) record(game, played, count, colourA == PieceColour.WHITE);
+                synchronized (statsA) {
+                    addStats(statsA, gameA);
+                    addStats(statsB, gameB);
+                }
+                if (game.winner() == colourA) wins.incrementAndGet();
+                else if (game.winner() == PieceColour.NONE) draws.incrementAndGet();
+                else losses.incrementAndGet();
+            }
+        };
+
+        long start = System.nanoTime();
+        Thread[] pool = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            pool[i] = new Thread(worker, "tournament-" + i);
+            pool[i].setUncaughtExceptionHandler((t, e) -> {
+                synchronized (errors) {
+                    errors.add(e);
+                }
+            });
+            pool[i].start();
+        }
+        for (Thread t : pool) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for games", e);
+            }
+        }
+        if (!errors.isEmpty())
+            throw new IllegalStateException("A game failed", errors.get(0));
+        return new Result(wins.get(), draws.get(), losses.get(), moves.get(), System.nanoTime() - start,
+                statsA, statsB);
+    }
+
+    // Adds the counters of stats to total, and its elapsed time too, since
+    // the searches added together ran one after the other
+    private static void addStats(SearchStats total, SearchStats stats) {
+        total.add(stats);
+        total.setElapsedNanos(total.getElapsedNanos() + stats.getElapsedNanos());
+    }
+
+    // Plays random moves, stopping early if the game would end
+    // Writes the cells played into played and returns how many there are
+    private int playOpening(Game game, Random random, int[] played) {
+        int count = 0;
+        for (int i = 0; i < openingMoves && !game.isOver(); i++) {
+            var moves = new ArrayList<>(game.getMoves());
+            Move move = moves.get(random.nextInt(moves.size()));
+            game.makeMove(move);
+            if (game.isOver()) {
+                game.undoMove();
+                break;
+            }
+            played[count++] = move.getRow() * size + move.getCol();
+        }
+        return count;
+    }
+
+    private void record(Game game, int[] played, int count, boolean aIsWhite) {
+        synchronized (recorder) {
+            try {
+                recorder.write(game, played, count, aIsWhite ? nameA : nameB, aIsWhite ? nameB : nameA);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Builds a factory for the engine described by spec (see the class comment)
+    public static Supplier<AI> parseEngine(String spec) {
+        String[] parts = spec.split(":");
+        try {
+            switch (parts[0]) {
+                case "minimax": {
+                    int depth = Integer.parseInt(parts[1]);
+                    boolean incremental = false;
+                    long millis = 0;
+                    Minimax.Algorithm algorithm = Minimax.Algorithm.ALPHA_BETA;
+                    for (int i = 2; i < parts.length; i++) {
+                        if (parts[i].equals("incremental")) incremental = true;
+                        else if (parts[i].equals("pvs")) algorithm = Minimax.Algorithm.PVS;
+                        else if (parts[i].equals("lmr")) algorithm = Minimax.Algorithm.PVS_LMR;
+                        else if (parts[i].endsWith("ms"))
+                            millis = Long.parseLong(parts[i].substring(0, parts[i].length() - 2));
+                        else throw new IllegalArgumentException("Unknown option " + parts[i]);
+                    }
+                    boolean useIncremental = incremental;
+                    long limit = millis;
+                    Minimax.Algorithm search = algorithm;
+                    return () -> {
+                        Minimax ai = new Minimax(depth, useIncremental
+                                ? new IncrementalMinPiecesHeuristic() : new MinPiecesHeuristic());
+                        ai.setTimeLimit(limit);
+                        ai.setAlgorithm(search);
+                        return ai;
+                    };
+                }
+                case "mcts": {
+                    long playouts = Long.parseLong(parts[1]);
+                    return () -> new MCTS(playouts);
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown engine " + parts[0]);
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid engine specification " + spec, e);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int games = 100, size = 5, threads = Runtime.getRuntime().availableProcessors(), opening = 2;
+        long seed = 1;
+        String record = null;
+        List<String> engines = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-games": games = Integer.parseInt(args[++i]); break;
+                case "-size": size = Integer.parseInt(args[++i]); break;
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                case "-opening": opening = Integer.parseInt(args[++i]); break;
+                case "-seed": seed = Long.parseLong(args[++i]); break;
+                case "-record": record = args[++i]; break;
+                default: engines.add(args[i]);
+            }
+        }
+        if (engines.size() != 2) {
+            System.out.println("Usage: java ai.Tournament [-games N] [-size N] [-threads N] "
+                    + "[-opening N] [-seed N] [-record FILE] A B");
+            System.out.println("Engines: minimax:<depth>[:incremental][:<millis>ms][:pvs|:lmr], mcts:<playouts>");
+            return;
+        }
+
+        Tournament tournament = new Tournament(parseEngine(engines.get(0)), parseEngine(engines.get(1)), size);
+        tournament.setOpeningMoves(opening);
+        tournament.setSeed(seed);
+        System.out.println("A = " + engines.get(0) + ", B = " + engines.get(1)
+                + ", size " + size + ", " + threads + " threads");
+        if (record == null) {
+            System.out.println(tournament.play(games, threads));
+            return;
+        }
+        try (GameRecordWriter recorder = GameRecordWriter.create(Path.of(record))) {
+            tournament.setRecorder(recorder, engines.get(0), engines.get(1));
+            System.out.println(tournament.play(games, threads));
+            System.out.println("Recorded " + recorder.getCount() + " games to " + record);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ai;
+
+// A fixed-size hash table of search results keyed by a position hash
+// (Minimax uses the canonical hash from Symmetry)
+// Entries live in two parallel long arrays, so the table allocates nothing
+// after construction. Each slot stores the data word and the key XORed with
+// the data word; a reader only accepts a slot whose two words agree, which
+// makes torn writes from concurrent threads look like a miss instead of
+// returning corrupt data. No locks are taken.
+//
+// The data word is packed as follows:
+//   bits  0-31  score (from the point of view of the player to move)
+//   bits 32-47  best move as a flat cell index plus one (0 if none)
+//   bits 48-55  remaining search depth
+//   bits 56-57  bound type (EXACT, LOWER or UPPER; 0 marks an empty slot)
+//   bits 58-63  search generation, used to age out entries from earlier moves
+public class TranspositionTable {
+    // The stored score is the exact value of the position
+    public static final int EXACT = 1;
+    // The stored score is a lower bound (the search failed high)
+    public static final int LOWER = 2;
+    // The stored score is an upper bound (the search failed low)
+    public static final int UPPER = 3;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private volatile int generation;
+
+    // Creates a table with at least the given number of slots
+    // The slot count is rounded up to a power of two
+    public TranspositionTable(int minSlots) {
+        if (minSlots < 1) throw new IllegalArgumentException("minSlots must be at least 1");
+        int slots = Integer.highestOneBit(minSlots);
+        if (slots < minSlots) slots <<= 1;
+        this.keys = new long[slots];
+        this.data = new long[slots];
+        this.mask = slots - 1;
+    }
+
+    // The number of slots in the table
+    public int capacity() {
+        return keys.length;
+    }
+
+    // Marks the start of a new search
+    // Entries written by earlier searches become replaceable regardless of depth
+    public void newSearch() {
+        generation = (generation + 1) & 0x3F;
+    }
+
+    // Removes every entry
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 0;
+            data[i] = 0;
+        }
+    }
+
+    // Looks up a position
+    // Returns the packed entry, or 0 if the position is not in the table
+    public long probe(long hash) {
+        int slot = (int) hash & mask;
+        long entry = data[slot];
+        if (entry == 0 || (keys[slot] ^ entry) != hash) return 0;
+        return entry;
+    }
+
+    // Stores a search result using a depth-preferred replacement policy
+    // An existing entry is kept if it belongs to the current search and
+    // was searched deeper than the new one, unless it is for the same position
+    // move is a flat cell index, or -1 if there is no best move
+    public void store(long hash, int depth, int bound, int score, int move) {
+        int slot = (int) hash & mask;
+        long old = data[slot];
+        if (old != 0 && generation(old) == generation && depth(old) > depth
+                && (keys[slot] ^ old) != hash)
+            return;
+        long entry = (score & 0xFFFFFFFFL)
+                | ((long) (move + 1) & 0xFFFF) << 32
+                | ((long) Math.min(depth, 0xFF)) << 48
+                | ((long) bound) << 56
+                | ((long) generation) << 58;
+        keys[slot] = hash ^ entry;
+        data[slot] = entry;
+    }
+
+    // Accessors for the fields of a packed entry returned by probe
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    public static int move(long entry) {
+        return (int) ((entry >>> 32) & 0xFFFF) - 1;
+    }
+
+    public static int depth(long entry) {
+        return (int) ((entry >>> 48) & 0xFF);
+    }
+
+    public static int bound(long entry) {
+        return (int) ((entry >>> 56) & 0x3);
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> 58);
+    }
+}
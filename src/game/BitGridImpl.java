@@ -0,0 +1,182 @@
+/**
+ * Implementation of the Grid interface that packs the board into one bitset per colour.
+ * Cell (row, col) is stored at bit index row * size + col, so copying a grid is
+ * two array copies instead of a walk over every cell.
+ */
+package game;
+
+public class BitGridImpl implements Grid {
+    /**
+     * Occupancy bits for white pieces, 64 cells per word.
+     */
+    private final long[] white;
+
+    /**
+     * Occupancy bits for black pieces, 64 cells per word.
+     */
+    private final long[] black;
+
+    /**
+     * Dimension of the square grid (number of rows and columns).
+     */
+    private final int size;
+
+    /**
+     * Constructs an empty grid of the specified size.
+     * @param size the number of rows and columns; must be positive.
+     * @throws IllegalArgumentException if size is not positive.
+     */
+    public BitGridImpl(int size) {
+        if (size <= 0) throw new IllegalArgumentException("Size must be positive");
+        this.size = size;
+        int words = (size * size + 63) >>> 6;
+        this.white = new long[words];
+        this.black = new long[words];
+    }
+
+    /**
+     * Copy constructor used by copy(); duplicates both bitsets.
+     * @param other the grid to copy.
+     */
+    private BitGridImpl(BitGridImpl other) {
+        this.size = other.size;
+        this.white = other.white.clone();
+        this.black = other.black.clone();
+    }
+
+    /**
+     * Returns the dimension of the grid (size x size).
+     * @return the grid size.
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves the piece at the given coordinates.
+     * @param row zero-based row index.
+     * @param col zero-based column index.
+     * @return the PieceColour at the specified cell.
+     * @throws IllegalArgumentException if row or col is out of bounds.
+     */
+    @Override
+    public PieceColour getPiece(int row, int col) {
+        if (row < 0 || row >= size || col < 0 || col >= size)
+            throw new IllegalArgumentException("Position out of bounds");
+        return get(row * size + col);
+    }
+
+    /**
+     * Places a piece on the board at the specified coordinates.
+     * @param row zero-based row index.
+     * @param col zero-based column index.
+     * @param piece the PieceColour to set; must be WHITE or BLACK.
+     * @throws IllegalArgumentException if position is out of bounds, piece is null/NONE,
+     *         or the position is already occupied.
+     */
+    @Override
+    public void setPiece(int row, int col, PieceColour piece) {
+        if (row < 0 || row >= size || col < 0 || col >= size)
+            throw new IllegalArgumentException("Position out of bounds");
+        if (piece == null || piece == PieceColour.NONE)
+            throw new IllegalArgumentException("Invalid piece colour");
+        int cell = row * size + col;
+        if (!isEmpty(cell))
+            throw new IllegalArgumentException("Position already occupied");
+        set(cell, piece);
+    }
+
+    /**
+     * Reads a cell by flat index without bounds checks.
+     * @param cell flat index row * size + col.
+     * @return the PieceColour at the cell.
+     */
+    PieceColour get(int cell) {
+        long bit = 1L << cell;
+        if ((white[cell >>> 6] & bit) != 0) return PieceColour.WHITE;
+        if ((black[cell >>> 6] & bit) != 0) return PieceColour.BLACK;
+        return PieceColour.NONE;
+    }
+
+    /**
+     * Checks whether a cell is empty without bounds checks.
+     * @param cell flat index row * size + col.
+     * @return true if neither colour occupies the cell.
+     */
+    boolean isEmpty(int cell) {
+        return ((white[cell >>> 6] | black[cell >>> 6]) & (1L << cell)) == 0;
+    }
+
+    /**
+     * Places a piece by flat index without bounds or occupancy checks.
+     * @param cell flat index row * size + col.
+     * @param piece WHITE or BLACK.
+     */
+    void set(int cell, PieceColour piece) {
+        long[] bits = piece == PieceColour.WHITE ? white : black;
+        bits[cell >>> 6] |= 1L << cell;
+    }
+
+    /**
+     * Empties a cell by flat index without bounds checks.
+     * @param cell flat index row * size + col.
+     */
+    void clear(int cell) {
+        long keep = ~(1L << cell);
+        white[cell >>> 6] &= keep;
+        black[cell >>> 6] &= keep;
+    }
+
+    /**
+     * Writes the flat indices of the empty cells into buffer in increasing order.
+     * Scans whole words of both bitsets at a time.
+     * @param buffer receives the cells; must hold every empty cell.
+     * @return the number of empty cells written.
+     */
+    int emptyCells(int[] buffer) {
+        int cells = size * size;
+        int count = 0;
+        for (int w = 0; w < white.length; w++) {
+            long free = ~(white[w] | black[w]);
+            // The last word has bits past the final cell
+            if (w == white.length - 1 && (cells & 63) != 0) free &= (1L << cells) - 1;
+            while (free != 0) {
+                buffer[count++] = (w << 6) + Long.numberOfTrailingZeros(free);
+                free &= free - 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Creates a deep copy of this grid.
+     * @return a new BitGridImpl instance with the same size and cell values.
+     */
+    @Override
+    public BitGridImpl copy() {
+        return new BitGridImpl(this);
+    }
+
+    /**
+     * Returns a string representation of the board for debugging:
+     * '.' for empty, 'W' for white, 'B' for black.
+     * Each row is on a new line.
+     * @return multi-line board state string.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                switch (get(i * size + j)) {
+                    case NONE:  sb.append('.'); break;
+                    case WHITE: sb.append('W'); break;
+                    case BLACK: sb.append('B'); break;
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
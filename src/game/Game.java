@@ -11,7 +11,8 @@ public interface Game {
     boolean isOver();
 
     // The colour of the winner.
-    // You should use the PathFinder class to determine the winner
+    // Implementations should track connections as moves are made, so that
+    // this is a cheap read (GameImpl keeps union-find sets for each colour)
     // Should return PieceColour.NONE if the game is not over
     // Should also return PieceColour.NONE if the game is a draw
     PieceColour winner();
@@ -27,6 +28,13 @@ public interface Game {
     // The collection should be empty if there are no valid moves
     Collection<Move> getMoves();
 
+    // Writes all valid moves for the current player into buffer, in increasing
+    // order, encoded as row * size + col
+    // buffer must have room for getSize() * getSize() moves and can be reused
+    // between calls, so generating moves allocates nothing
+    // Returns the number of moves written, 0 if there are none
+    int getMoves(int[] buffer);
+
 
     // Executes a move for the current player
     // Updates the internal game state to reflect the move
@@ -38,6 +46,37 @@ public interface Game {
     // or the position is out of bounds
     void makeMove(Move move);
 
+    // Executes the move at the cell encoded as row * size + col
+    // Behaves exactly like makeMove(Move) for the same row and column
+    // Throws an IllegalArgumentException if the cell is out of bounds or occupied
+    void makeMove(int cell);
+
+    // Reverts the most recent move that has not already been undone
+    // Restores the grid, the current player and the win state exactly
+    // as they were before that move, including after a winning move
+    // Throws an IllegalStateException if there is no move to undo
+    void undoMove();
+
+    // Returns a 64-bit Zobrist hash of the position
+    // Two games with the same size, the same pieces and the same
+    // current player have the same hash, whatever order the moves were made in
+    // The hash is updated incrementally by makeMove and undoMove
+    long hash();
+
+    // Returns the hash of the position transformed by a symmetry (see Symmetry)
+    // hash(0) equals hash()
+    // Like hash(), it is updated incrementally by makeMove and undoMove
+    long hash(int symmetry);
+
+    // Returns the side length of the game grid
+    int getSize();
+
+    // Returns the piece at the given row and column
+    // Unlike getGrid(), this reads the game's own grid without copying it
+    // Should return PieceColour.NONE if the position is empty
+    // Throws IllegalArgumentException if the row or column is out of bounds
+    PieceColour getPiece(int row, int col);
+
     // Returns a copy of the grid
     // Note that this is should be a deep copy
     // Which means that the grid returned should be a new object
@@ -45,6 +84,15 @@ public interface Game {
     // by modifying the grid returned
     Grid getGrid();
 
+    // Returns a read-only view of the game's own grid, without copying it
+    // The view reads the live board, so it costs nothing to create or read
+    // It is only valid until the next makeMove or undoMove; GameImpl throws a
+    // ConcurrentModificationException when it is read after that, while
+    // PersistentGameImpl keeps showing the position the view was made at
+    // setPiece throws an UnsupportedOperationException, and copy() returns
+    // an ordinary deep copy that stays valid
+    Grid view();
+
     // Returns a copy of the game
     // Note that this is should be a deep copy
     // Which means that the game returned should be a new object
@@ -1,17 +1,20 @@
 /**
  * Implementation of the Game interface for a turn-based grid game (e.g., Hex-like).
  * Manages the game state, current player, and win condition detection.
+ * Connectivity is tracked incrementally with one union-find per colour, so
+ * isOver() and winner() are constant-time reads.
  */
 package game;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 
 public class GameImpl implements Game {
     /**
      * Underlying grid holding pieces for each cell.
      */
-    private final GridImpl grid;
+    private final BitGridImpl grid;
 
     /**
      * The player whose turn it currently is.
@@ -28,6 +31,61 @@ public class GameImpl implements Game {
      */
     private PieceColour winner;
 
+    /**
+     * Connected groups of white stones, each root with a mask of the board
+     * edges its group touches.
+     */
+    private final UnionFind whiteSets;
+
+    /**
+     * Connected groups of black stones, each root with a mask of the board
+     * edges its group touches.
+     */
+    private final UnionFind blackSets;
+
+    /**
+     * Number of empty cells left on the board.
+     */
+    private int empty;
+
+    /**
+     * Flat cell indices of the moves made so far, oldest first.
+     */
+    private final int[] history;
+
+    /**
+     * Incremented by every move and undo; views made before a change detect it.
+     */
+    private int version;
+
+    /**
+     * The view handed out by view() for the current version, or null.
+     */
+    private View view;
+
+    /**
+     * Zobrist keys for this board size, shared between copies.
+     */
+    private final long[] keys;
+
+    /**
+     * One shared MoveImpl per cell, indexed by row * size + col, so getMoves()
+     * does not create moves; shared between copies.
+     */
+    private final Move[] moveTable;
+
+    /**
+     * Images of every cell under each symmetry, shared between copies.
+     * The image of cell under symmetry s is at images[s * size * size + cell].
+     */
+    private final int[] images;
+
+    /**
+     * Zobrist hash of the position under each symmetry; hashes[0] is the
+     * hash of the position itself.
+     */
+    private final long[] hashes;
+
     /**
      * Constructs a new game with an empty grid of the given size.
      * @param size Number of rows/columns for the square grid; must be positive.
@@ -35,29 +93,60 @@ public class GameImpl implements Game {
      */
     public GameImpl(int size) {
         if (size <= 0) throw new IllegalArgumentException("Size must be positive");
-        this.grid = new GridImpl(size);
+        this.grid = new BitGridImpl(size);
         this.currentPlayer = PieceColour.WHITE;
         this.over = false;
         this.winner = PieceColour.NONE;
+        this.whiteSets = new UnionFind(size);
+        this.blackSets = new UnionFind(size);
+        this.empty = size * size;
+        this.history = new int[size * size];
+        this.keys = Zobrist.keys(size);
+        int cells = size * size;
+        this.moveTable = new Move[cells];
+        for (int cell = 0; cell < cells; cell++)
+            moveTable[cell] = new MoveImpl(cell / size, cell % size);
+        this.images = new int[Symmetry.COUNT * cells];
+        for (int s = 0; s < Symmetry.COUNT; s++)
+            for (int cell = 0; cell < cells; cell++)
+                images[s * cells + cell] = Symmetry.apply(s, cell, size);
+        this.hashes = new long[Symmetry.COUNT];
     }
 
     /**
-     * Checks if the game has ended, updating the state first.
+     * Copy constructor used by copy(); duplicates the grid and all state flags.
+     * @param other the game to copy.
+     */
+    private GameImpl(GameImpl other) {
+        this.grid = other.grid.copy();
+        this.currentPlayer = other.currentPlayer;
+        this.over = other.over;
+        this.winner = other.winner;
+        this.whiteSets = new UnionFind(other.whiteSets);
+        this.blackSets = new UnionFind(other.blackSets);
+        this.empty = other.empty;
+        this.history = other.history.clone();
+        this.keys = other.keys;
+        this.moveTable = other.moveTable;
+        this.images = other.images;
+        this.hashes = other.hashes.clone();
+    }
+
+    /**
+     * Checks if the game has ended.
      * @return true if the game is over, false otherwise.
      */
     @Override
     public boolean isOver() {
-        updateState();
         return over;
     }
 
     /**
-     * Returns the winner of the game, updating the state first.
+     * Returns the winner of the game.
      * @return the PieceColour of the winner, or NONE if draw or ongoing.
      */
     @Override
     public PieceColour winner() {
-        updateState();
         return winner;
     }
 
@@ -72,21 +161,30 @@ public class GameImpl implements Game {
 
     /**
      * Lists all legal moves available on the current board.
+     * The moves are shared instances, so only the list itself is allocated.
      * @return a collection of Move objects for each empty cell.
      */
     @Override
     public Collection<Move> getMoves() {
-        Collection<Move> moves = new ArrayList<>();
-        int n = grid.getSize();
-        for (int r = 0; r < n; r++) {
-            for (int c = 0; c < n; c++) {
-                if (grid.getPiece(r, c) == PieceColour.NONE)
-                    moves.add(new MoveImpl(r, c));
-            }
+        Collection<Move> moves = new ArrayList<>(empty);
+        int cells = grid.getSize() * grid.getSize();
+        for (int cell = 0; cell < cells; cell++) {
+            if (grid.isEmpty(cell))
+                moves.add(moveTable[cell]);
         }
         return moves;
     }
 
+    /**
+     * Writes all legal moves into a caller-supplied buffer as flat cell indices.
+     * @param buffer receives row * size + col of every empty cell, in increasing order.
+     * @return the number of moves written.
+     */
+    @Override
+    public int getMoves(int[] buffer) {
+        return grid.emptyCells(buffer);
+    }
+
     /**
      * Executes a move for the current player, then toggles turn if game not over.
      * @param move the Move to apply; must not be null or out of bounds,
@@ -103,16 +201,130 @@ public class GameImpl implements Game {
         int r = move.getRow(), c = move.getCol();
         if (r < 0 || r >= grid.getSize() || c < 0 || c >= grid.getSize())
             throw new IllegalArgumentException("Move out of bounds");
-        if (grid.getPiece(r, c) != PieceColour.NONE)
+        place(r * grid.getSize() + c);
+    }
+
+    /**
+     * Executes a move given as a flat cell index for the current player.
+     * @param cell row * size + col of the target cell, which must be empty.
+     * @throws IllegalArgumentException on invalid move.
+     */
+    @Override
+    public void makeMove(int cell) {
+        if (over)
+            throw new IllegalStateException("Game is already over");
+        if (cell < 0 || cell >= grid.getSize() * grid.getSize())
+            throw new IllegalArgumentException("Move out of bounds");
+        place(cell);
+    }
+
+    /**
+     * Places the current player's piece on an in-bounds cell and updates all state.
+     * @param cell flat cell index.
+     * @throws IllegalArgumentException if the cell is occupied.
+     */
+    private void place(int cell) {
+        if (!grid.isEmpty(cell))
             throw new IllegalArgumentException("Position already occupied");
 
-        grid.setPiece(r, c, currentPlayer);
+        grid.set(cell, currentPlayer);
+        (currentPlayer == PieceColour.WHITE ? whiteSets : blackSets).place(cell, grid, currentPlayer);
+        history[grid.getSize() * grid.getSize() - empty] = cell;
+        togglePiece(cell, currentPlayer);
+        version++;
+        empty--;
         updateState();
         if (!over) {
             currentPlayer = (currentPlayer == PieceColour.WHITE) ? PieceColour.BLACK : PieceColour.WHITE;
+            togglePlayer();
         }
     }
 
+    /**
+     * Reverts the most recent move, restoring the grid, turn, and win state.
+     * @throws IllegalStateException if no move has been made.
+     */
+    @Override
+    public void undoMove() {
+        int n = grid.getSize();
+        if (empty == n * n)
+            throw new IllegalStateException("No move to undo");
+
+        empty++;
+        version++;
+        int cell = history[n * n - empty];
+        PieceColour piece = grid.get(cell);
+        grid.clear(cell);
+        (piece == PieceColour.WHITE ? whiteSets : blackSets).remove(cell);
+        togglePiece(cell, piece);
+        if (currentPlayer != piece) togglePlayer();
+        currentPlayer = piece;
+        over = false;
+        winner = PieceColour.NONE;
+    }
+
+    /**
+     * Returns the incrementally maintained Zobrist hash of this position.
+     * @return the position hash.
+     */
+    @Override
+    public long hash() {
+        return hashes[0];
+    }
+
+    /**
+     * Returns the incrementally maintained hash of this position under a symmetry.
+     * @param symmetry the symmetry index, 0 to 7 (see Symmetry).
+     * @return the hash of the transformed position.
+     * @throws IllegalArgumentException if symmetry is out of range.
+     */
+    @Override
+    public long hash(int symmetry) {
+        if (symmetry < 0 || symmetry >= Symmetry.COUNT)
+            throw new IllegalArgumentException("Invalid symmetry " + symmetry);
+        return hashes[symmetry];
+    }
+
+    /**
+     * XORs the key of a piece on a cell into the hash under every symmetry.
+     * @param cell flat cell index.
+     * @param piece WHITE or BLACK.
+     */
+    private void togglePiece(int cell, PieceColour piece) {
+        int cells = grid.getSize() * grid.getSize();
+        for (int s = 0; s < Symmetry.COUNT; s++)
+            hashes[s] ^= keys[Zobrist.index(images[s * cells + cell], piece)];
+    }
+
+    /**
+     * XORs the side-to-move key into the hash under every symmetry.
+     */
+    private void togglePlayer() {
+        for (int s = 0; s < Symmetry.COUNT; s++)
+            hashes[s] ^= Zobrist.BLACK_TO_MOVE;
+    }
+
+    /**
+     * Returns the side length of the grid.
+     * @return the grid size.
+     */
+    @Override
+    public int getSize() {
+        return grid.getSize();
+    }
+
+    /**
+     * Reads a cell of the live grid without copying it.
+     * @param row zero-based row index.
+     * @param col zero-based column index.
+     * @return the PieceColour at the specified cell.
+     * @throws IllegalArgumentException if row or col is out of bounds.
+     */
+    @Override
+    public PieceColour getPiece(int row, int col) {
+        return grid.getPiece(row, col);
+    }
+
     /**
      * Returns a copy of the current grid state.
      * @return a deep copy of the Grid.
@@ -122,36 +334,37 @@ public class GameImpl implements Game {
         return grid.copy();
     }
 
+    /**
+     * Returns a read-only view of the live grid, valid until the next move or undo.
+     * Views are cached per version, so repeated calls allocate nothing.
+     * @return a Grid backed by this game's board.
+     */
+    @Override
+    public Grid view() {
+        if (view == null || view.version != version)
+            view = new View(version);
+        return view;
+    }
+
     /**
      * Creates a full copy of this GameImpl, including grid, turn, and state.
      * @return a new GameImpl instance mirroring the current game state.
      */
     @Override
     public Game copy() {
-        GameImpl copy = new GameImpl(grid.getSize());
-        for (int r = 0; r < grid.getSize(); r++) {
-            for (int c = 0; c < grid.getSize(); c++) {
-                PieceColour p = grid.getPiece(r, c);
-                if (p != PieceColour.NONE)
-                    copy.grid.setPiece(r, c, p);
-            }
-        }
-        copy.currentPlayer = this.currentPlayer;
-        copy.over          = this.over;
-        copy.winner        = this.winner;
-        return copy;
+        return new GameImpl(this);
     }
 
     /**
      * Internal helper to detect win conditions or draw and update flags.
+     * Only the player who just moved can have gained a path, but both colours
+     * are checked so that a simultaneous connection is still scored as a draw.
      */
     private void updateState() {
         if (over) return;
 
-        boolean whiteWin = PathFinder.leftToRight(grid, PieceColour.WHITE) ||
-                        PathFinder.topToBottom(grid, PieceColour.WHITE);
-        boolean blackWin = PathFinder.leftToRight(grid, PieceColour.BLACK) ||
-                        PathFinder.topToBottom(grid, PieceColour.BLACK);
+        boolean whiteWin = whiteSets.spans();
+        boolean blackWin = blackSets.spans();
 
         if (whiteWin && blackWin) {
             over   = true;
@@ -168,9 +381,69 @@ public class GameImpl implements Game {
             winner = PieceColour.BLACK;
             return;
         }
-        if (getMoves().isEmpty()) {
+        if (empty == 0) {
             over   = true;
             winner = PieceColour.NONE;
         }
     }
+
+    /**
+     * Read-only Grid backed by the live board of this game.
+     * Every read checks that the game has not changed since the view was made.
+     */
+    private final class View implements Grid {
+        /**
+         * The game's version when this view was made.
+         */
+        private final int version;
+
+        /**
+         * Creates a view of the current position.
+         * @param version the game's current version.
+         */
+        View(int version) {
+            this.version = version;
+        }
+
+        /**
+         * Throws if the game has been modified since this view was made.
+         * @throws ConcurrentModificationException if the view is stale.
+         */
+        private void check() {
+            if (version != GameImpl.this.version)
+                throw new ConcurrentModificationException("The game has changed since this view was made");
+        }
+
+        @Override
+        public int getSize() {
+            return grid.getSize();
+        }
+
+        @Override
+        public PieceColour getPiece(int row, int col) {
+            check();
+            return grid.getPiece(row, col);
+        }
+
+        /**
+         * Always throws; views cannot change the game.
+         * @throws UnsupportedOperationException always.
+         */
+        @Override
+        public void setPiece(int row, int col, PieceColour piece) {
+            throw new UnsupportedOperationException("Grid view is read-only");
+        }
+
+        @Override
+        public Grid copy() {
+            check();
+            return grid.copy();
+        }
+
+        @Override
+        public String toString() {
+            check();
+            return grid.toString();
+        }
+    }
 }
@@ -0,0 +1,276 @@
+/**
+ * Reads a file of game records written by GameRecordWriter, one record at a
+ * time (see GameRecordWriter for the format).
+ * The file is memory-mapped a window at a time rather than read, so a file
+ * of any size is read in one pass with a fixed amount of heap: the current
+ * record's moves are decoded into a buffer that is reused, and player names
+ * are only decoded when asked for. Windows are mapped on demand, so files
+ * larger than the 2 GB limit of a single mapping are read too.
+ *
+ * A reader is a cursor: next() moves to the following record and the getters
+ * describe the current one. A reader is not thread safe.
+ */
+package game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class GameRecordReader implements Closeable {
+    // Bytes mapped at a time, unless a record needs more
+    private static final int DEFAULT_WINDOW_BYTES = 64 << 20;
+    // A varint is at most five bytes
+    private static final int MAX_VARINT_BYTES = 5;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowBytes;
+    private MappedByteBuffer window;
+    // The file offset of the start of the window
+    private long windowStart;
+    // The file offset of the next record
+    private long next;
+    private long records;
+    // The read position in the window, and the end of the bytes that may be read
+    private int pos;
+    private int limit;
+
+    // The current record: offsets are positions in the window
+    private int size;
+    private int result = -1;
+    private int whiteOffset, whiteLength;
+    private int blackOffset, blackLength;
+    private int[] moves = new int[0];
+    private int moveCount;
+
+    /**
+     * Opens a record file, mapping 64 MB at a time.
+     * @param file the file to read.
+     * @return a reader positioned before the first record.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not a game record file.
+     */
+    public static GameRecordReader open(Path file) throws IOException {
+        return open(file, DEFAULT_WINDOW_BYTES);
+    }
+
+    /**
+     * Opens a record file.
+     * @param file the file to read.
+     * @param windowBytes the number of bytes mapped at a time; a window is
+     *        made larger if a single record does not fit.
+     * @return a reader positioned before the first record.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not a game record file.
+     */
+    public static GameRecordReader open(Path file, int windowBytes) throws IOException {
+        if (windowBytes < GameRecordWriter.HEADER_BYTES)
+            throw new IllegalArgumentException("Window too small");
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new GameRecordReader(channel, windowBytes);
+        } catch (RuntimeException | IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private GameRecordReader(FileChannel channel, int windowBytes) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.windowBytes = windowBytes;
+        if (fileSize < GameRecordWriter.HEADER_BYTES)
+            throw new IllegalArgumentException("Not a game record file");
+        map(0, GameRecordWriter.HEADER_BYTES);
+        if (window.getInt(0) != GameRecordWriter.MAGIC)
+            throw new IllegalArgumentException("Not a game record file");
+        if (window.getInt(4) != GameRecordWriter.VERSION)
+            throw new IllegalArgumentException("Unsupported game record version " + window.getInt(4));
+        next = GameRecordWriter.HEADER_BYTES;
+    }
+
+    /**
+     * Moves to the next record.
+     * @return true if there is one, false at the end of the file.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the record is corrupt.
+     */
+    public boolean next() throws IOException {
+        if (next >= fileSize) {
+            result = -1;
+            return false;
+        }
+        map(next, (int) Math.min(MAX_VARINT_BYTES, fileSize - next));
+        pos = (int) (next - windowStart);
+        limit = window.capacity();
+        int length = readVarint();
+        int prefix = pos - (int) (next - windowStart);
+        long end = next + prefix + length;
+        if (end > fileSize) throw corrupt();
+        map(next, (int) (end - next));
+        pos = (int) (next - windowStart) + prefix;
+        limit = (int) (end - windowStart);
+
+        size = readVarint();
+        if (size <= 0 || pos >= limit) throw corrupt();
+        result = window.get(pos++);
+        if (result < GameRecordWriter.UNFINISHED || result > GameRecordWriter.BLACK_WON) throw corrupt();
+        whiteLength = readVarint();
+        whiteOffset = skip(whiteLength);
+        blackLength = readVarint();
+        blackOffset = skip(blackLength);
+        moveCount = readVarint();
+        if ((long) size * size > Integer.MAX_VALUE) throw corrupt();
+        int cells = size * size;
+        // Every move takes at least a byte
+        if (moveCount > cells || moveCount > limit - pos) throw corrupt();
+        if (moves.length < moveCount) moves = new int[Math.max(moveCount, moves.length * 2)];
+        for (int i = 0; i < moveCount; i++) {
+            int cell = readVarint();
+            if (cell >= cells) throw corrupt();
+            moves[i] = cell;
+        }
+        if (pos != limit) throw corrupt();
+        next = end;
+        records++;
+        return true;
+    }
+
+    /**
+     * @return the number of records read so far.
+     */
+    public long getCount() {
+        return records;
+    }
+
+    /**
+     * @return the board size of the current record.
+     */
+    public int getSize() {
+        checkRecord();
+        return size;
+    }
+
+    /**
+     * @return true if the game of the current record was played to the end.
+     */
+    public boolean isFinished() {
+        checkRecord();
+        return result != GameRecordWriter.UNFINISHED;
+    }
+
+    /**
+     * @return the winner of the current record, or PieceColour.NONE for a
+     *         draw or an unfinished game.
+     */
+    public PieceColour getWinner() {
+        checkRecord();
+        return result == GameRecordWriter.WHITE_WON ? PieceColour.WHITE
+                : result == GameRecordWriter.BLACK_WON ? PieceColour.BLACK : PieceColour.NONE;
+    }
+
+    /**
+     * @return the name of the white player of the current record.
+     */
+    public String getWhite() {
+        checkRecord();
+        return decode(whiteOffset, whiteLength);
+    }
+
+    /**
+     * @return the name of the black player of the current record.
+     */
+    public String getBlack() {
+        checkRecord();
+        return decode(blackOffset, blackLength);
+    }
+
+    /**
+     * @return the number of moves of the current record.
+     */
+    public int getMoveCount() {
+        checkRecord();
+        return moveCount;
+    }
+
+    /**
+     * @param index the index of the move, from 0.
+     * @return the flat cell index row * size + col of a move of the current record.
+     */
+    public int getMove(int index) {
+        checkRecord();
+        if (index < 0 || index >= moveCount) throw new IndexOutOfBoundsException("Move " + index);
+        return moves[index];
+    }
+
+    /**
+     * Plays the moves of the current record on a new game.
+     * @return a GameImpl in the position at the end of the record.
+     * @throws IllegalArgumentException if the moves are not a legal game.
+     */
+    public Game replay() {
+        checkRecord();
+        Game game = new GameImpl(size);
+        for (int i = 0; i < moveCount; i++) {
+            if (game.isOver()) throw new IllegalArgumentException("Move after the end of the game");
+            game.makeMove(moves[i]);
+        }
+        return game;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    // Makes sure the window covers bytes from offset to offset + length
+    private void map(long offset, int length) throws IOException {
+        if (window != null && offset >= windowStart && offset + length <= windowStart + window.capacity())
+            return;
+        long bytes = Math.min(Math.max(windowBytes, length), fileSize - offset);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes);
+        windowStart = offset;
+    }
+
+    // Reads a varint at pos and moves pos past it
+    private int readVarint() {
+        int value = 0;
+        for (int shift = 0; shift < 7 * MAX_VARINT_BYTES; shift += 7) {
+            if (pos >= limit) throw corrupt();
+            int b = window.get(pos++);
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) throw corrupt();
+                return value;
+            }
+        }
+        throw corrupt();
+    }
+
+    // Moves pos past length bytes and returns where they start
+    private int skip(int length) {
+        if (length > limit - pos) throw corrupt();
+        int start = pos;
+        pos += length;
+        return start;
+    }
+
+    private String decode(int offset, int length) {
+        byte[] bytes = new byte[length];
+        window.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void checkRecord() {
+        if (result < 0) throw new IllegalStateException("No current record");
+    }
+
+    private IllegalArgumentException corrupt() {
+        return new IllegalArgumentException("Corrupt game record at offset " + next);
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Writes game records in a compact binary format, one game at a time.
+ * Records are streamed to the output as they are written, so a file can
+ * hold any number of games without them ever being held in memory together.
+ * GameRecordReader reads them back.
+ *
+ * File format: the int magic "HXGR" and an int version (big-endian), then
+ * one record per game. Every number in a record is an unsigned varint: seven
+ * bits per byte, least significant group first, with the top bit set on
+ * every byte but the last. A record is
+ * <pre>
+ *   varint  length of the rest of the record in bytes
+ *   varint  board size
+ *   byte    result: 0 unfinished, 1 draw, 2 white won, 3 black won
+ *   varint  length of the white player's name, then its UTF-8 bytes
+ *   varint  length of the black player's name, then its UTF-8 bytes
+ *   varint  number of moves
+ *   varint  each move as a flat cell index row * size + col, white first
+ * </pre>
+ * A move takes one byte on boards of up to 11 x 11 and two bytes on larger
+ * ones. The length at the start lets a reader skip or bounds-check a record
+ * without decoding it.
+ *
+ * A writer is not thread safe; callers sharing one must synchronise.
+ */
+package game;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class GameRecordWriter implements Closeable {
+    static final int MAGIC = 0x48584752;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+
+    static final int UNFINISHED = 0, DRAW = 1, WHITE_WON = 2, BLACK_WON = 3;
+
+    private final OutputStream out;
+    // The record being built, reused between records
+    private byte[] body = new byte[256];
+    private int length;
+    private final byte[] prefix = new byte[5];
+    private long records;
+
+    /**
+     * Starts a record file on a stream.
+     * @param out the stream to write to; it is closed by close().
+     * @throws IOException if the header cannot be written.
+     */
+    public GameRecordWriter(OutputStream out) throws IOException {
+        this.out = out;
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+    }
+
+    /**
+     * Creates a record file, replacing any existing file.
+     * @param file the file to write.
+     * @return a writer for the file.
+     * @throws IOException if the file cannot be created.
+     */
+    public static GameRecordWriter create(Path file) throws IOException {
+        return new GameRecordWriter(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+    }
+
+    /**
+     * Writes one game.
+     * @param game the game after its last move; its size and result are recorded.
+     * @param moves the flat cell indices of the moves of the game, white's first.
+     * @param count the number of moves; only the first count entries of moves are used.
+     * @param white the name of the white player.
+     * @param black the name of the black player.
+     * @throws IOException if the record cannot be written.
+     */
+    public void write(Game game, int[] moves, int count, String white, String black) throws IOException {
+        int result = !game.isOver() ? UNFINISHED
+                : game.winner() == PieceColour.WHITE ? WHITE_WON
+                : game.winner() == PieceColour.BLACK ? BLACK_WON : DRAW;
+        write(game.getSize(), result, moves, count, white, black);
+    }
+
+    /**
+     * Writes one game given its moves alone.
+     * @param size the board size.
+     * @param winner the winner, or PieceColour.NONE for a draw.
+     * @param finished false if the game was stopped before it ended, in which case winner is ignored.
+     * @param moves the flat cell indices of the moves, white's first.
+     * @param count the number of moves; only the first count entries of moves are used.
+     * @param white the name of the white player.
+     * @param black the name of the black player.
+     * @throws IOException if the record cannot be written.
+     */
+    public void write(int size, PieceColour winner, boolean finished, int[] moves, int count,
+                      String white, String black) throws IOException {
+        int result = !finished ? UNFINISHED
+                : winner == PieceColour.WHITE ? WHITE_WON
+                : winner == PieceColour.BLACK ? BLACK_WON : DRAW;
+        write(size, result, moves, count, white, black);
+    }
+
+    /**
+     * @return the number of games written so far.
+     */
+    public long getCount() {
+        return records;
+    }
+
+    /**
+     * Writes any buffered records to the underlying stream.
+     * @throws IOException if they cannot be written.
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void write(int size, int result, int[] moves, int count, String white, String black)
+            throws IOException {
+        if (size <= 0) throw new IllegalArgumentException("Size must be positive");
+        if (count < 0 || count > size * size) throw new IllegalArgumentException("Invalid move count " + count);
+        length = 0;
+        putVarint(size);
+        put(result);
+        putString(white);
+        putString(black);
+        putVarint(count);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] < 0 || moves[i] >= size * size)
+                throw new IllegalArgumentException("Invalid move " + moves[i]);
+            putVarint(moves[i]);
+        }
+
+        int n = 0;
+        int value = length;
+        while ((value & ~0x7F) != 0) {
+            prefix[n++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        prefix[n++] = (byte) value;
+        out.write(prefix, 0, n);
+        out.write(body, 0, length);
+        records++;
+    }
+
+    private void putString(String s) {
+        byte[] bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        putVarint(bytes.length);
+        for (byte b : bytes) put(b);
+    }
+
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            put(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        put(value);
+    }
+
+    private void put(int b) {
+        if (length == body.length) body = Arrays.copyOf(body, length * 2);
+        body[length++] = (byte) b;
+    }
+}
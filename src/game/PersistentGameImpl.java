@@ -0,0 +1,478 @@
+/**
+ * Implementation of the Game interface whose positions are immutable and share structure.
+ * The board is split into chunks of 64 cells, each an immutable pair of bit
+ * masks. A position (a Frame) holds a directory of chunks together with the
+ * turn, win state and hashes, and a link to the position before it. A move
+ * builds a new frame that shares every chunk but the one it touches, and
+ * undoMove steps back to the previous frame, so copy() only has to share the
+ * current frame: it is O(1), and copies branch off without affecting each other.
+ *
+ * Only the player who just moved can complete a path, so the win is found by
+ * a flood fill of the new stone's group recording which edges it touches.
+ */
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+public class PersistentGameImpl implements Game {
+    /**
+     * Edge mask bits, as in UnionFind.
+     */
+    private static final int LEFT = 1, RIGHT = 2, TOP = 4, BOTTOM = 8;
+
+    /**
+     * Tables that depend only on the board size, shared between copies.
+     */
+    private final Tables tables;
+
+    /**
+     * The current position.
+     */
+    private Frame frame;
+
+    /**
+     * Flood fill work space, created on first use so that copies stay cheap.
+     */
+    private int[] stack;
+    private long[] visited;
+
+    /**
+     * Constructs a new game with an empty grid of the given size.
+     * @param size Number of rows/columns for the square grid; must be positive.
+     * @throws IllegalArgumentException if size is not positive.
+     */
+    public PersistentGameImpl(int size) {
+        if (size <= 0) throw new IllegalArgumentException("Size must be positive");
+        this.tables = new Tables(size);
+        Chunk[] chunks = new Chunk[(size * size + 63) >>> 6];
+        Arrays.fill(chunks, Chunk.EMPTY);
+        this.frame = new Frame(null, chunks, PieceColour.WHITE, false, PieceColour.NONE,
+                size * size, new long[Symmetry.COUNT]);
+    }
+
+    /**
+     * Copy constructor used by copy(); shares the tables and the current frame.
+     * @param other the game to copy.
+     */
+    private PersistentGameImpl(PersistentGameImpl other) {
+        this.tables = other.tables;
+        this.frame = other.frame;
+    }
+
+    /**
+     * Checks if the game has ended.
+     * @return true if the game is over, false otherwise.
+     */
+    @Override
+    public boolean isOver() {
+        return frame.over;
+    }
+
+    /**
+     * Determines the winner of the game, if any.
+     * @return the winning PieceColour, or NONE if no winner.
+     */
+    @Override
+    public PieceColour winner() {
+        return frame.winner;
+    }
+
+    /**
+     * Returns which player's turn it is.
+     * @return the current player's PieceColour.
+     */
+    @Override
+    public PieceColour currentPlayer() {
+        return frame.toMove;
+    }
+
+    /**
+     * Lists all legal moves available on the current board.
+     * The moves are shared instances, so only the list itself is allocated.
+     * @return a collection of Move objects for each empty cell.
+     */
+    @Override
+    public Collection<Move> getMoves() {
+        Collection<Move> moves = new ArrayList<>(frame.empty);
+        for (int cell = 0; cell < tables.cells; cell++) {
+            if (get(frame.chunks, cell) == PieceColour.NONE)
+                moves.add(tables.moveTable[cell]);
+        }
+        return moves;
+    }
+
+    /**
+     * Writes all legal moves into a caller-supplied buffer as flat cell indices.
+     * @param buffer receives row * size + col of every empty cell, in increasing order.
+     * @return the number of moves written.
+     */
+    @Override
+    public int getMoves(int[] buffer) {
+        Chunk[] chunks = frame.chunks;
+        int count = 0;
+        for (int w = 0; w < chunks.length; w++) {
+            long free = ~(chunks[w].white | chunks[w].black);
+            int remaining = tables.cells - (w << 6);
+            if (remaining < 64) free &= (1L << remaining) - 1;
+            while (free != 0) {
+                buffer[count++] = (w << 6) + Long.numberOfTrailingZeros(free);
+                free &= free - 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Executes a move for the current player, then toggles turn if game not over.
+     * @param move the Move to apply; must not be null or out of bounds,
+     *             and the target cell must be empty.
+     * @throws IllegalArgumentException on invalid move.
+     */
+    @Override
+    public void makeMove(Move move) {
+        if (move == null) throw new IllegalArgumentException("Move is null");
+        int r = move.getRow(), c = move.getCol();
+        if (r < 0 || r >= tables.size || c < 0 || c >= tables.size)
+            throw new IllegalArgumentException("Move out of bounds");
+        makeMove(r * tables.size + c);
+    }
+
+    /**
+     * Executes a move given as a flat cell index for the current player.
+     * Copies the directory and the touched chunk; every other chunk is shared.
+     * @param cell row * size + col of the target cell, which must be empty.
+     * @throws IllegalArgumentException on invalid move.
+     */
+    @Override
+    public void makeMove(int cell) {
+        if (frame.over)
+            throw new IllegalStateException("Game is already over");
+        if (cell < 0 || cell >= tables.cells)
+            throw new IllegalArgumentException("Move out of bounds");
+        if (get(frame.chunks, cell) != PieceColour.NONE)
+            throw new IllegalArgumentException("Position already occupied");
+
+        PieceColour player = frame.toMove;
+        Chunk[] chunks = frame.chunks.clone();
+        chunks[cell >>> 6] = chunks[cell >>> 6].with(cell & 63, player);
+
+        long[] hashes = frame.hashes.clone();
+        for (int s = 0; s < Symmetry.COUNT; s++)
+            hashes[s] ^= tables.keys[Zobrist.index(tables.images[s * tables.cells + cell], player)];
+
+        int empty = frame.empty - 1;
+        boolean over = true;
+        PieceColour winner = PieceColour.NONE;
+        PieceColour toMove = player;
+        if (spans(chunks, cell, player)) {
+            winner = player;
+        } else if (empty > 0) {
+            over = false;
+            toMove = player == PieceColour.WHITE ? PieceColour.BLACK : PieceColour.WHITE;
+            for (int s = 0; s < Symmetry.COUNT; s++)
+                hashes[s] ^= Zobrist.BLACK_TO_MOVE;
+        }
+        frame = new Frame(frame, chunks, toMove, over, winner, empty, hashes);
+    }
+
+    /**
+     * Reverts the most recent move by returning to the previous position.
+     * Copies share their earlier positions, so a copy can undo moves made
+     * before it was taken without affecting the original.
+     * @throws IllegalStateException if no move has been made.
+     */
+    @Override
+    public void undoMove() {
+        if (frame.previous == null)
+            throw new IllegalStateException("No move to undo");
+        frame = frame.previous;
+    }
+
+    /**
+     * Returns the Zobrist hash of this position.
+     * @return the position hash.
+     */
+    @Override
+    public long hash() {
+        return frame.hashes[0];
+    }
+
+    /**
+     * Returns the hash of this position under a symmetry.
+     * @param symmetry the symmetry index, 0 to 7 (see Symmetry).
+     * @return the hash of the transformed position.
+     * @throws IllegalArgumentException if symmetry is out of range.
+     */
+    @Override
+    public long hash(int symmetry) {
+        if (symmetry < 0 || symmetry >= Symmetry.COUNT)
+            throw new IllegalArgumentException("Invalid symmetry " + symmetry);
+        return frame.hashes[symmetry];
+    }
+
+    /**
+     * Returns the side length of the grid.
+     * @return the grid size.
+     */
+    @Override
+    public int getSize() {
+        return tables.size;
+    }
+
+    /**
+     * Reads a cell of the current position without copying it.
+     * @param row zero-based row index.
+     * @param col zero-based column index.
+     * @return the PieceColour at the specified cell.
+     * @throws IllegalArgumentException if row or col is out of bounds.
+     */
+    @Override
+    public PieceColour getPiece(int row, int col) {
+        checkBounds(row, col);
+        return get(frame.chunks, row * tables.size + col);
+    }
+
+    /**
+     * Returns a copy of the current grid state.
+     * @return a new BitGridImpl holding the pieces of this position.
+     */
+    @Override
+    public Grid getGrid() {
+        return toGrid(frame.chunks);
+    }
+
+    /**
+     * Returns a read-only view of the current position.
+     * Positions never change once made, so unlike GameImpl's view this one
+     * stays valid after later moves and keeps showing this position.
+     * @return a Grid backed by the current frame.
+     */
+    @Override
+    public Grid view() {
+        return new View(frame);
+    }
+
+    /**
+     * Creates a copy of this game that shares all of its positions.
+     * @return a new PersistentGameImpl at the same position, in O(1).
+     */
+    @Override
+    public Game copy() {
+        return new PersistentGameImpl(this);
+    }
+
+    /**
+     * Throws if a row or column is outside the board.
+     * @param row zero-based row index.
+     * @param col zero-based column index.
+     * @throws IllegalArgumentException if row or col is out of bounds.
+     */
+    private void checkBounds(int row, int col) {
+        if (row < 0 || row >= tables.size || col < 0 || col >= tables.size)
+            throw new IllegalArgumentException("Position out of bounds");
+    }
+
+    /**
+     * Builds a mutable grid holding the pieces of a chunk directory.
+     * @param chunks the directory.
+     * @return a new BitGridImpl.
+     */
+    private BitGridImpl toGrid(Chunk[] chunks) {
+        BitGridImpl grid = new BitGridImpl(tables.size);
+        for (int cell = 0; cell < tables.cells; cell++) {
+            PieceColour piece = get(chunks, cell);
+            if (piece != PieceColour.NONE) grid.set(cell, piece);
+        }
+        return grid;
+    }
+
+    /**
+     * Reads a cell from a chunk directory.
+     * @param chunks the directory.
+     * @param cell flat cell index.
+     * @return the PieceColour on the cell.
+     */
+    private static PieceColour get(Chunk[] chunks, int cell) {
+        Chunk chunk = chunks[cell >>> 6];
+        long bit = 1L << (cell & 63);
+        if ((chunk.white & bit) != 0) return PieceColour.WHITE;
+        if ((chunk.black & bit) != 0) return PieceColour.BLACK;
+        return PieceColour.NONE;
+    }
+
+    /**
+     * Flood fills the group of a stone and checks whether it connects a pair of opposite edges.
+     * @param chunks the directory with the stone already placed.
+     * @param start flat index of the stone.
+     * @param piece the colour of the stone.
+     * @return true if the group spans the board.
+     */
+    private boolean spans(Chunk[] chunks, int start, PieceColour piece) {
+        int size = tables.size;
+        if (stack == null) {
+            stack = new int[tables.cells];
+            visited = new long[chunks.length];
+        }
+        Arrays.fill(visited, 0);
+        int top = 0, edges = 0;
+        stack[top++] = start;
+        visited[start >>> 6] |= 1L << (start & 63);
+        while (top > 0) {
+            int cell = stack[--top];
+            int r = cell / size, c = cell % size;
+            if (c == 0) edges |= LEFT;
+            if (c == size - 1) edges |= RIGHT;
+            if (r == 0) edges |= TOP;
+            if (r == size - 1) edges |= BOTTOM;
+            if ((edges & (LEFT | RIGHT)) == (LEFT | RIGHT) || (edges & (TOP | BOTTOM)) == (TOP | BOTTOM))
+                return true;
+            if (r > 0) top = push(chunks, cell - size, piece, top);
+            if (r < size - 1) top = push(chunks, cell + size, piece, top);
+            if (c > 0) top = push(chunks, cell - 1, piece, top);
+            if (c < size - 1) top = push(chunks, cell + 1, piece, top);
+        }
+        return false;
+    }
+
+    /**
+     * Pushes a neighbour onto the flood fill stack if it holds the same colour and is unvisited.
+     * @return the new stack height.
+     */
+    private int push(Chunk[] chunks, int cell, PieceColour piece, int top) {
+        long bit = 1L << (cell & 63);
+        if ((visited[cell >>> 6] & bit) != 0 || get(chunks, cell) != piece) return top;
+        visited[cell >>> 6] |= bit;
+        stack[top] = cell;
+        return top + 1;
+    }
+
+    /**
+     * 64 cells of the board as an immutable pair of bit masks.
+     */
+    private static final class Chunk {
+        /**
+         * The chunk with no pieces, shared by every empty board.
+         */
+        static final Chunk EMPTY = new Chunk(0, 0);
+
+        final long white, black;
+
+        Chunk(long white, long black) {
+            this.white = white;
+            this.black = black;
+        }
+
+        /**
+         * Returns a new chunk with one more piece.
+         * @param bit the cell index within the chunk, 0 to 63.
+         * @param piece WHITE or BLACK.
+         * @return the new chunk; this one is unchanged.
+         */
+        Chunk with(int bit, PieceColour piece) {
+            long mask = 1L << bit;
+            return piece == PieceColour.WHITE ? new Chunk(white | mask, black) : new Chunk(white, black | mask);
+        }
+    }
+
+    /**
+     * One immutable position together with the position before it.
+     */
+    private static final class Frame {
+        final Frame previous;
+        final Chunk[] chunks;
+        final PieceColour toMove;
+        final boolean over;
+        final PieceColour winner;
+        final int empty;
+        final long[] hashes;
+
+        Frame(Frame previous, Chunk[] chunks, PieceColour toMove, boolean over,
+              PieceColour winner, int empty, long[] hashes) {
+            this.previous = previous;
+            this.chunks = chunks;
+            this.toMove = toMove;
+            this.over = over;
+            this.winner = winner;
+            this.empty = empty;
+            this.hashes = hashes;
+        }
+    }
+
+    /**
+     * Tables that depend only on the board size.
+     */
+    private static final class Tables {
+        final int size, cells;
+
+        /**
+         * Zobrist keys for this board size.
+         */
+        final long[] keys;
+
+        /**
+         * One shared MoveImpl per cell, indexed by row * size + col.
+         */
+        final Move[] moveTable;
+
+        /**
+         * The image of cell under symmetry s is at images[s * cells + cell].
+         */
+        final int[] images;
+
+        Tables(int size) {
+            this.size = size;
+            this.cells = size * size;
+            this.keys = Zobrist.keys(size);
+            this.moveTable = new Move[cells];
+            for (int cell = 0; cell < cells; cell++)
+                moveTable[cell] = new MoveImpl(cell / size, cell % size);
+            this.images = new int[Symmetry.COUNT * cells];
+            for (int s = 0; s < Symmetry.COUNT; s++)
+                for (int cell = 0; cell < cells; cell++)
+                    images[s * cells + cell] = Symmetry.apply(s, cell, size);
+        }
+    }
+
+    /**
+     * Read-only Grid over one immutable position.
+     */
+    private final class View implements Grid {
+        private final Frame frame;
+
+        View(Frame frame) {
+            this.frame = frame;
+        }
+
+        @Override
+        public int getSize() {
+            return tables.size;
+        }
+
+        @Override
+        public PieceColour getPiece(int row, int col) {
+            checkBounds(row, col);
+            return get(frame.chunks, row * tables.size + col);
+        }
+
+        /**
+         * Always throws; views cannot change the game.
+         * @throws UnsupportedOperationException always.
+         */
+        @Override
+        public void setPiece(int row, int col, PieceColour piece) {
+            throw new UnsupportedOperationException("Grid view is read-only");
+        }
+
+        @Override
+        public Grid copy() {
+            return toGrid(frame.chunks);
+        }
+
+        @Override
+        public String toString() {
+            return copy().toString();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Symmetries of the game: transformations of a position that preserve its value.
+ * Either colour wins by connecting left to right or top to bottom, so the
+ * eight rotations and reflections of the square map winning paths to winning
+ * paths. Swapping the colours would preserve the value too, but white always
+ * moves first, so the colour-swapped image of a reachable position has the
+ * wrong number of stones of each colour and never matches another one.
+ *
+ * A symmetry is an index from 0 to 7. Bit 2 transposes the board (swaps row
+ * and column), then bit 0 mirrors the rows and bit 1 mirrors the columns.
+ * Symmetry 0 is the identity.
+ *
+ * The canonical representative of a position is its transformation with the
+ * smallest Zobrist hash (Game.hash(int)), breaking ties by the smaller index.
+ * Positions related by a symmetry share their canonical hash, so caches keyed
+ * by it store one entry for all of them.
+ */
+package game;
+
+public final class Symmetry {
+    /**
+     * Number of symmetries, including the identity.
+     */
+    public static final int COUNT = 8;
+
+    private Symmetry() {
+    }
+
+    /**
+     * Maps a cell to its image under a symmetry.
+     * @param symmetry the symmetry index, 0 to 7.
+     * @param cell flat cell index row * size + col.
+     * @param size the grid side length.
+     * @return the flat index of the image cell.
+     */
+    public static int apply(int symmetry, int cell, int size) {
+        int r = cell / size, c = cell % size;
+        if ((symmetry & 4) != 0) {
+            int t = r;
+            r = c;
+            c = t;
+        }
+        if ((symmetry & 1) != 0) r = size - 1 - r;
+        if ((symmetry & 2) != 0) c = size - 1 - c;
+        return r * size + c;
+    }
+
+    /**
+     * Returns the symmetry that undoes the given one.
+     * @param symmetry the symmetry index, 0 to 7.
+     * @return the index of the inverse symmetry.
+     */
+    public static int inverse(int symmetry) {
+        if ((symmetry & 4) == 0) return symmetry;
+        // Mirroring after a transpose equals mirroring the other axis before it
+        return 4 | ((symmetry & 1) << 1) | ((symmetry & 2) >> 1);
+    }
+
+    /**
+     * Returns the symmetry that maps game to its canonical representative.
+     * @param game the position.
+     * @return the symmetry with the smallest hash, 0 to 7.
+     */
+    public static int canonical(Game game) {
+        int best = 0;
+        long bestHash = game.hash(0);
+        for (int s = 1; s < COUNT; s++) {
+            long h = game.hash(s);
+            if (h < bestHash) {
+                bestHash = h;
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the hash of the canonical representative of game.
+     * @param game the position.
+     * @return the smallest of game.hash(s) over all symmetries s.
+     */
+    public static long canonicalHash(Game game) {
+        return game.hash(canonical(game));
+    }
+
+    /**
+     * Computes the hash of a grid transformed by a symmetry from scratch.
+     * For a game's grid and player to move it equals Game.hash(symmetry).
+     * @param grid the pieces on the board.
+     * @param toMove the player to move in the untransformed position.
+     * @param symmetry the symmetry index, 0 to 7.
+     * @return the Zobrist hash of the transformed position.
+     */
+    public static long hash(Grid grid, PieceColour toMove, int symmetry) {
+        int size = grid.getSize();
+        long[] keys = Zobrist.keys(size);
+        long h = toMove == PieceColour.BLACK ? Zobrist.BLACK_TO_MOVE : 0;
+        for (int cell = 0; cell < size * size; cell++) {
+            PieceColour piece = grid.getPiece(cell / size, cell % size);
+            if (piece != PieceColour.NONE)
+                h ^= keys[Zobrist.index(apply(symmetry, cell, size), piece)];
+        }
+        return h;
+    }
+
+    /**
+     * Returns the symmetry that maps a grid to its canonical representative.
+     * @param grid the pieces on the board.
+     * @param toMove the player to move.
+     * @return the symmetry with the smallest hash, 0 to 7.
+     */
+    public static int canonical(Grid grid, PieceColour toMove) {
+        int best = 0;
+        long bestHash = hash(grid, toMove, 0);
+        for (int s = 1; s < COUNT; s++) {
+            long h = hash(grid, toMove, s);
+            if (h < bestHash) {
+                bestHash = h;
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Builds the image of a grid under a symmetry.
+     * @param grid the pieces on the board; not modified.
+     * @param symmetry the symmetry index, 0 to 7.
+     * @return a new grid holding the transformed pieces.
+     */
+    public static Grid transform(Grid grid, int symmetry) {
+        int size = grid.getSize();
+        Grid result = new GridImpl(size);
+        for (int cell = 0; cell < size * size; cell++) {
+            PieceColour piece = grid.getPiece(cell / size, cell % size);
+            if (piece != PieceColour.NONE) {
+                int image = apply(symmetry, cell, size);
+                result.setPiece(image / size, image % size, piece);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a symmetry maps the pieces of game onto themselves.
+     * Two moves related by such a symmetry lead to equivalent positions.
+     * @param game the position.
+     * @param symmetry the symmetry index, 0 to 7.
+     * @return true if every cell holds the same piece as its image.
+     */
+    public static boolean preserves(Game game, int symmetry) {
+        int size = game.getSize();
+        for (int cell = 0; cell < size * size; cell++) {
+            int image = apply(symmetry, cell, size);
+            if (game.getPiece(cell / size, cell % size)
+                    != game.getPiece(image / size, image % size))
+                return false;
+        }
+        return true;
+    }
+}
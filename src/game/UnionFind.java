@@ -0,0 +1,171 @@
+/**
+ * Disjoint-set forest tracking which stones of one colour are connected.
+ * Cells use the flat index row * size + col. Each root carries a bit mask of
+ * the board edges its group touches, so a win is a single lookup on the
+ * group of the last stone placed.
+ * Unions are journalled so the most recent place() can be rolled back exactly;
+ * for that reason find() uses union by weight only, without path compression.
+ */
+package game;
+
+class UnionFind {
+    /**
+     * Edge mask bits.
+     */
+    static final int LEFT = 1, RIGHT = 2, TOP = 4, BOTTOM = 8;
+
+    /**
+     * Parent pointer of each cell; a root points to itself.
+     */
+    private final int[] parent;
+
+    /**
+     * Number of cells in the tree rooted at each root.
+     */
+    private final int[] weight;
+
+    /**
+     * Edges touched by the group rooted at each root.
+     */
+    private final byte[] edges;
+
+    /**
+     * Dimension of the square grid this structure was built for.
+     */
+    private final int size;
+
+    /**
+     * Set once any group touches two opposite edges.
+     */
+    private boolean spans;
+
+    /**
+     * Journal of unions: the root that was attached, and the old edge mask of its new parent.
+     */
+    private final int[] journalChild;
+    private final byte[] journalEdges;
+    private int journalTop;
+
+    /**
+     * Journal height and spans flag at the start of each place() call.
+     */
+    private final int[] frameStart;
+    private final boolean[] frameSpans;
+    private int frames;
+
+    /**
+     * Creates singleton sets for every cell.
+     * @param size the grid side length.
+     */
+    UnionFind(int size) {
+        int cells = size * size;
+        this.size = size;
+        this.parent = new int[cells];
+        this.weight = new int[cells];
+        this.edges = new byte[cells];
+        for (int i = 0; i < cells; i++) {
+            parent[i] = i;
+            weight[i] = 1;
+        }
+        this.journalChild = new int[cells];
+        this.journalEdges = new byte[cells];
+        this.frameStart = new int[cells];
+        this.frameSpans = new boolean[cells];
+    }
+
+    /**
+     * Copy constructor; duplicates the forest and its journal.
+     * @param other the structure to copy.
+     */
+    UnionFind(UnionFind other) {
+        this.size = other.size;
+        this.parent = other.parent.clone();
+        this.weight = other.weight.clone();
+        this.edges = other.edges.clone();
+        this.spans = other.spans;
+        this.journalChild = other.journalChild.clone();
+        this.journalEdges = other.journalEdges.clone();
+        this.journalTop = other.journalTop;
+        this.frameStart = other.frameStart.clone();
+        this.frameSpans = other.frameSpans.clone();
+        this.frames = other.frames;
+    }
+
+    /**
+     * Finds the root of a cell.
+     * @param x cell index.
+     * @return the root of x's set.
+     */
+    int find(int x) {
+        while (parent[x] != x) x = parent[x];
+        return x;
+    }
+
+    /**
+     * Merges the sets containing a and b, attaching the lighter tree under the heavier.
+     * @param a cell index.
+     * @param b cell index.
+     */
+    private void union(int a, int b) {
+        int ra = find(a), rb = find(b);
+        if (ra == rb) return;
+        if (weight[ra] < weight[rb]) {
+            int t = ra; ra = rb; rb = t;
+        }
+        journalChild[journalTop] = rb;
+        journalEdges[journalTop++] = edges[ra];
+        parent[rb] = ra;
+        weight[ra] += weight[rb];
+        edges[ra] |= edges[rb];
+    }
+
+    /**
+     * Adds a stone at a cell, joining it with same-coloured neighbours.
+     * @param cell flat index of the new stone.
+     * @param grid the grid the stone has already been placed on.
+     * @param piece the colour of the stone.
+     */
+    void place(int cell, BitGridImpl grid, PieceColour piece) {
+        frameStart[frames] = journalTop;
+        frameSpans[frames++] = spans;
+        int r = cell / size, c = cell % size;
+        int mask = 0;
+        if (c == 0) mask |= LEFT;
+        if (c == size - 1) mask |= RIGHT;
+        if (r == 0) mask |= TOP;
+        if (r == size - 1) mask |= BOTTOM;
+        edges[cell] = (byte) mask;
+        if (r > 0 && grid.get(cell - size) == piece) union(cell, cell - size);
+        if (r < size - 1 && grid.get(cell + size) == piece) union(cell, cell + size);
+        if (c > 0 && grid.get(cell - 1) == piece) union(cell, cell - 1);
+        if (c < size - 1 && grid.get(cell + 1) == piece) union(cell, cell + 1);
+        int e = edges[find(cell)];
+        if ((e & (LEFT | RIGHT)) == (LEFT | RIGHT) || (e & (TOP | BOTTOM)) == (TOP | BOTTOM))
+            spans = true;
+    }
+
+    /**
+     * Rolls back the most recent place() call.
+     * @param cell flat index of the stone being removed; must be the last one placed.
+     */
+    void remove(int cell) {
+        int start = frameStart[--frames];
+        while (journalTop > start) {
+            int child = journalChild[--journalTop];
+            int root = parent[child];
+            parent[child] = child;
+            weight[root] -= weight[child];
+            edges[root] = journalEdges[journalTop];
+        }
+        edges[cell] = 0;
+        spans = frameSpans[frames];
+    }
+
+    /**
+     * Checks whether any group connects a pair of opposite edges.
+     * @return true if the colour tracked by this structure has a winning path.
+     */
+    boolean spans() {
+        return spans;
+    }
+}
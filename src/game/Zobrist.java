@@ -0,0 +1,50 @@
+/**
+ * Zobrist keys for incremental position hashing.
+ * Keys are derived deterministically from the board size, cell and colour,
+ * so hashes are stable across runs and can be stored on disk.
+ */
+package game;
+
+public final class Zobrist {
+    /**
+     * Key toggled into the hash whenever black is the player to move.
+     */
+    public static final long BLACK_TO_MOVE = mix(0x5DEECE66DL);
+
+    private Zobrist() {
+    }
+
+    /**
+     * Builds the key table for a board of the given size.
+     * The key of a piece at flat cell index i is at table[2 * i] for white
+     * and table[2 * i + 1] for black.
+     * @param size the grid side length.
+     * @return a new table of 2 * size * size keys.
+     */
+    public static long[] keys(int size) {
+        long[] table = new long[2 * size * size];
+        for (int i = 0; i < table.length; i++)
+            table[i] = mix(((long) size << 32) + i);
+        return table;
+    }
+
+    /**
+     * Returns the index of a piece's key in a table built by keys().
+     * @param cell flat cell index row * size + col.
+     * @param piece WHITE or BLACK.
+     * @return the table index.
+     */
+    public static int index(int cell, PieceColour piece) {
+        return 2 * cell + (piece == PieceColour.BLACK ? 1 : 0);
+    }
+
+    /**
+     * SplitMix64 finaliser; spreads consecutive inputs over all 64 bits.
+     */
+    private static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,71 @@
+package game.tests;
+
+import java.util.Random;
+
+import ai.*;
+import game.*;
+
+public class EngineTest extends Test {
+    public static void main(String[] args) {
+        /* ---------- commands ---------- */
+        Engine engine = newEngine(3);
+        expect("= 2", engine.execute("protocol_version"));
+        expect("=5 true", engine.execute("5 known_command genmove"));
+        expect(true, engine.execute("   # only a comment") == null);
+        expect("?", engine.execute("bogus").substring(0, 1));
+        expect("=", engine.execute("play w b2"));
+        expect(PieceColour.WHITE, engine.getGame().getPiece(1, 1));
+        expect("?", engine.execute("play w a1").substring(0, 1));
+        expect("=", engine.execute("undo"));
+        expect(PieceColour.NONE, engine.getGame().getPiece(1, 1));
+        expect("=", engine.execute("boardsize 4"));
+        expect(4, engine.getGame().getSize());
+        expect(0L, engine.getLastBudget());
+
+        /* ---------- byoyomi without time_left stays within each period ---------- */
+        // One second for every five stones from the start; the engine is
+        // never told its time left, so it must keep its own clock
+        // The JVM is warmed up first, so the first timed move is not slowed
+        // down by compilation
+        engine = newEngine(7);
+        engine.execute("time_settings 1 0 0");
+        for (int i = 0; i < 4; i++) engine.execute(i % 2 == 0 ? "genmove w" : "genmove b");
+        engine.execute("clear_board");
+        expect("=", engine.execute("time_settings 0 1 5"));
+        Random random = new Random(7);
+        int[] buffer = new int[49];
+        long period = 0;
+        int stones = 0;
+        boolean withinBudget = true, withinPeriod = true;
+        Game game = engine.getGame();
+        while (!game.isOver()) {
+            long start = System.nanoTime();
+            String response = engine.execute("genmove w");
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            expect('=', response.charAt(0));
+            // Each move may use at most its share of what is left of the
+            // period, with a little allowed for the protocol around the search
+            withinBudget &= engine.getLastBudget() * (5 - stones) <= 1000 + 50 - period;
+            period += millis;
+            if (++stones == 5) {
+                withinPeriod &= period <= 1000 + 50;
+                period = 0;
+                stones = 0;
+            }
+            if (game.isOver()) break;
+            int count = game.getMoves(buffer);
+            int cell = buffer[random.nextInt(count)];
+            engine.execute("play b " + (char) ('a' + cell % 7) + (cell / 7 + 1));
+        }
+        expect(true, withinBudget);
+        expect(true, withinPeriod);
+
+        checkAllTestsPassed();
+    }
+
+    // An engine that would search far deeper than any budget allows
+    private static Engine newEngine(int size) {
+        TranspositionTable table = new TranspositionTable(1 << 16);
+        return new Engine(new Minimax(30, new MinPiecesHeuristic(), table), table, size, false);
+    }
+}
@@ -0,0 +1,118 @@
+package game.tests;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import game.*;
+
+public class GameRecordTest extends Test {
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("records", ".bin");
+        try {
+            run(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        checkAllTestsPassed();
+    }
+
+    private static void run(Path file) throws IOException {
+        /* ---------- random games, including 2-byte moves on 12 x 12 ---------- */
+        Random random = new Random(11);
+        int games = 300;
+        int[][] played = new int[games][];
+        int[] sizes = new int[games];
+        PieceColour[] winners = new PieceColour[games];
+        boolean[] finished = new boolean[games];
+        try (GameRecordWriter writer = GameRecordWriter.create(file)) {
+            int[] buffer = new int[144];
+            for (int g = 0; g < games; g++) {
+                int size = 1 + random.nextInt(12);
+                Game game = new GameImpl(size);
+                int[] moves = new int[size * size];
+                int count = 0;
+                // Every tenth game is stopped early
+                int stop = g % 10 == 0 ? random.nextInt(size * size) : Integer.MAX_VALUE;
+                while (!game.isOver() && count < stop) {
+                    int n = game.getMoves(buffer);
+                    moves[count] = buffer[random.nextInt(n)];
+                    game.makeMove(moves[count++]);
+                }
+                writer.write(game, moves, count, "white " + g, "n\u00f8ir " + g);
+                played[g] = Arrays.copyOf(moves, count);
+                sizes[g] = size;
+                finished[g] = game.isOver();
+                winners[g] = game.isOver() ? game.winner() : PieceColour.NONE;
+            }
+            expect((long) games, writer.getCount());
+        }
+
+        // A tiny window forces remapping and windows grown to fit a record
+        for (int window : new int[] {16, 1 << 20}) {
+            boolean same = true;
+            try (GameRecordReader reader = GameRecordReader.open(file, window)) {
+                for (int g = 0; g < games; g++) {
+                    same &= reader.next();
+                    same &= reader.getSize() == sizes[g];
+                    same &= reader.isFinished() == finished[g];
+                    same &= reader.getWinner() == winners[g];
+                    same &= reader.getWhite().equals("white " + g);
+                    same &= reader.getBlack().equals("n\u00f8ir " + g);
+                    same &= reader.getMoveCount() == played[g].length;
+                    for (int i = 0; i < played[g].length; i++) same &= reader.getMove(i) == played[g][i];
+                    Game replayed = reader.replay();
+                    same &= replayed.isOver() == finished[g];
+                    if (finished[g]) same &= replayed.winner() == winners[g];
+                }
+                same &= !reader.next();
+                expect((long) games, reader.getCount());
+            }
+            expect(true, same);
+        }
+
+        /* ---------- a move takes one byte on small boards ---------- */
+        Path small = Files.createTempFile("records", ".bin");
+        try {
+            try (GameRecordWriter writer = GameRecordWriter.create(small)) {
+                writer.write(11, PieceColour.WHITE, true, new int[] {0, 120, 60}, 3, "", "");
+            }
+            // Header 8, length 1, size 1, result 1, names 2, count 1, moves 3
+            expect(17L, Files.size(small));
+
+            /* ---------- a truncated file is reported as corrupt ---------- */
+            byte[] bytes = Files.readAllBytes(small);
+            Files.write(small, Arrays.copyOf(bytes, bytes.length - 1));
+            boolean caught = false;
+            try (GameRecordReader reader = GameRecordReader.open(small)) {
+                reader.next();
+            } catch (IllegalArgumentException e) {
+                caught = true;
+            }
+            expect(true, caught);
+
+            /* ---------- other files are rejected ---------- */
+            Files.write(small, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+            caught = false;
+            try (GameRecordReader reader = GameRecordReader.open(small)) {
+                reader.next();
+            } catch (IllegalArgumentException e) {
+                caught = true;
+            }
+            expect(true, caught);
+        } finally {
+            Files.deleteIfExists(small);
+        }
+
+        /* ---------- no record before the first next() ---------- */
+        boolean caught = false;
+        try (GameRecordReader reader = GameRecordReader.open(file)) {
+            reader.getSize();
+        } catch (IllegalStateException e) {
+            caught = true;
+        }
+        expect(true, caught);
+    }
+}
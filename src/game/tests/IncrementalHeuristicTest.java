@@ -0,0 +1,55 @@
+package game.tests;
+
+import java.util.Random;
+
+import ai.*;
+import game.*;
+
+public class IncrementalHeuristicTest extends Test {
+    public static void main(String[] args) {
+        /* ---------- random walks score the same as MinPiecesHeuristic ---------- */
+        // Undos are mixed in with the moves, so queued changes are cancelled
+        // and maps repaired both ways
+        Random random = new Random(9);
+        MinPiecesHeuristic reference = new MinPiecesHeuristic();
+        IncrementalHeuristic heuristic = new IncrementalMinPiecesHeuristic();
+        boolean same = true;
+        for (int walk = 0; walk < 200; walk++) {
+            int size = 2 + walk % 10;
+            Game game = new GameImpl(size);
+            heuristic.reset(game);
+            int[] buffer = new int[size * size];
+            int[] played = new int[size * size];
+            int count = 0;
+            for (int step = 0; step < 4 * size * size; step++) {
+                if (count > 0 && (game.isOver() || random.nextInt(3) == 0)) {
+                    int cell = played[--count];
+                    game.undoMove();
+                    heuristic.moveUndone(game, cell / size, cell % size);
+                } else {
+                    int cell = buffer[random.nextInt(game.getMoves(buffer))];
+                    played[count++] = cell;
+                    game.makeMove(cell);
+                    heuristic.moveMade(game, cell / size, cell % size);
+                }
+                same &= heuristic.score(game) == reference.score(game);
+            }
+        }
+        expect(true, same);
+
+        /* ---------- a forked instance tracks its own game ---------- */
+        Game game = new GameImpl(6);
+        heuristic.reset(game);
+        IncrementalHeuristic fork = heuristic.fork();
+        Game other = new GameImpl(6);
+        fork.reset(other);
+        game.makeMove(14);
+        heuristic.moveMade(game, 2, 2);
+        other.makeMove(0);
+        fork.moveMade(other, 0, 0);
+        expect(reference.score(game), heuristic.score(game));
+        expect(reference.score(other), fork.score(other));
+
+        checkAllTestsPassed();
+    }
+}
@@ -0,0 +1,77 @@
+package game.tests;
+
+import java.util.Random;
+
+import ai.*;
+import game.*;
+
+public class MCTSTest extends Test {
+    public static void main(String[] args) {
+        /* ---------- the playout budget is respected ---------- */
+        for (int threads : new int[] {1, 4}) {
+            MCTS mcts = new MCTS(500);
+            mcts.setThreads(threads);
+            mcts.setRandomSeed(10);
+            mcts.getCurrentPlayerMove(new GameImpl(5));
+            expect(500L, mcts.getSearchStats().getLeafEvaluations());
+        }
+
+        /* ---------- a one-move win is found ---------- */
+        Random random = new Random(10);
+        MCTS mcts = new MCTS(2000);
+        mcts.setRandomSeed(10);
+        boolean found = true;
+        int positions = 0;
+        while (positions < 50) {
+            Game game = Negamax.randomPosition(random, 4 + random.nextInt(2), 6 + random.nextInt(6));
+            if (!hasWin(game)) continue;
+            positions++;
+            Move move = mcts.getCurrentPlayerMove(game);
+            found &= winsWith(game, move.getRow() * game.getSize() + move.getCol());
+        }
+        expect(true, found);
+
+        /* ---------- a multi-threaded search returns a legal move ---------- */
+        mcts = new MCTS(1000);
+        mcts.setThreads(4);
+        boolean legal = true;
+        for (int i = 0; i < 50; i++) {
+            int size = 2 + random.nextInt(6);
+            Game game = Negamax.randomPosition(random, size, 1 + random.nextInt(size * size));
+            Move move = mcts.getCurrentPlayerMove(game);
+            legal &= move != null && game.getPiece(move.getRow(), move.getCol()) == PieceColour.NONE;
+        }
+        expect(true, legal);
+
+        /* ---------- a finished game is rejected ---------- */
+        Game over = new GameImpl(1);
+        over.makeMove(0);
+        boolean caught = false;
+        try {
+            mcts.getCurrentPlayerMove(over);
+        } catch (IllegalStateException e) {
+            caught = true;
+        }
+        expect(true, caught);
+
+        checkAllTestsPassed();
+    }
+
+    // True if the player to move has a move that wins at once
+    private static boolean hasWin(Game game) {
+        int[] moves = new int[game.getSize() * game.getSize()];
+        int count = game.getMoves(moves);
+        for (int i = 0; i < count; i++)
+            if (winsWith(game, moves[i])) return true;
+        return false;
+    }
+
+    // True if playing cell ends the game with a win for the player to move
+    private static boolean winsWith(Game game, int cell) {
+        PieceColour player = game.currentPlayer();
+        game.makeMove(cell);
+        boolean won = game.isOver() && game.winner() == player;
+        game.undoMove();
+        return won;
+    }
+}
@@ -0,0 +1,36 @@
+package game.tests;
+
+import java.util.Random;
+
+import ai.*;
+import game.*;
+
+public class MinimaxTest extends Test {
+    public static void main(String[] args) {
+        /* ---------- a full-depth search plays a move of the negamax value ---------- */
+        // The solver is off, so the move comes from the search itself, with
+        // the move filter, must-play restriction and table all in use
+        for (Minimax.Algorithm algorithm : Minimax.Algorithm.values()) {
+            for (int threads : new int[] {1, 4}) {
+                Random random = new Random(21);
+                boolean best = true;
+                for (int i = 0; i < 300; i++) {
+                    int size = 2 + random.nextInt(4);
+                    Game game = Negamax.randomPosition(random, size, 1 + random.nextInt(8));
+                    int empty = game.getMoves(new int[size * size]);
+                    Minimax minimax = new Minimax(empty, new MinPiecesHeuristic(), new TranspositionTable(1 << 12));
+                    minimax.setAlgorithm(algorithm);
+                    minimax.setThreads(threads);
+                    minimax.setSolver(0, 1);
+                    Move move = minimax.getCurrentPlayerMove(game);
+                    Negamax negamax = new Negamax();
+                    best &= game.getPiece(move.getRow(), move.getCol()) == PieceColour.NONE
+                            && negamax.valueOf(game, move.getRow() * size + move.getCol()) == negamax.value(game);
+                }
+                expect(true, best);
+            }
+        }
+
+        checkAllTestsPassed();
+    }
+}
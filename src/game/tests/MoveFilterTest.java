@@ -0,0 +1,43 @@
+package game.tests;
+
+import java.util.Random;
+
+import ai.*;
+import game.*;
+
+public class MoveFilterTest extends Test {
+    public static void main(String[] args) {
+        /* ---------- removing dead cells keeps the value of the position ---------- */
+        // The best value over the live moves, or a draw if there are none,
+        // must equal the full-width value
+        Random random = new Random(20);
+        boolean sameValue = true, sameDrawn = true;
+        int pruned = 0;
+        for (int i = 0; i < 1000; i++) {
+            int size = 2 + random.nextInt(4);
+            Game game = Negamax.randomPosition(random, size, 4 + random.nextInt(6));
+            Negamax negamax = new Negamax();
+            MoveFilter filter = new MoveFilter(size);
+            int[] moves = new int[size * size];
+            int all = game.getMoves(moves);
+            int live = filter.filter(game, moves, all);
+            pruned += all - live;
+            int value = live == 0 ? 0 : -1;
+            for (int m = 0; m < live; m++) value = Math.max(value, negamax.valueOf(game, moves[m]));
+            sameValue &= value == negamax.value(game);
+            sameDrawn &= filter.isDrawn(game) == (live == 0);
+        }
+        expect(true, sameValue);
+        expect(true, sameDrawn);
+        // The check means nothing unless some cells are actually removed
+        expect(true, pruned > 0);
+
+        /* ---------- boards of another size are rejected ---------- */
+        MoveFilter filter = new MoveFilter(3);
+        boolean caught = false;
+        try { filter.isDrawn(new GameImpl(4)); } catch (IllegalArgumentException e) { caught = true; }
+        expect(true, caught);
+
+        checkAllTestsPassed();
+    }
+}
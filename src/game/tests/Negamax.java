@@ -0,0 +1,55 @@
+package game.tests;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import game.*;
+
+// Exact values of small positions by exhaustive negamax, to check the
+// solvers and move pruning of the ai package against
+// Positions are memoised by hash, so one instance must only be used for
+// positions on boards of the same size.
+class Negamax {
+    private final Map<Long, Integer> memo = new HashMap<>();
+
+    // 1 if the player to move wins, 0 if the game is drawn, -1 if they lose
+    int value(Game game) {
+        if (game.isOver()) return game.winner() == PieceColour.NONE ? 0 : -1;
+        Integer known = memo.get(game.hash());
+        if (known != null) return known;
+        int[] moves = new int[game.getSize() * game.getSize()];
+        int count = game.getMoves(moves);
+        int best = -1;
+        for (int i = 0; i < count && best < 1; i++) {
+            game.makeMove(moves[i]);
+            best = Math.max(best, -value(game));
+            game.undoMove();
+        }
+        memo.put(game.hash(), best);
+        return best;
+    }
+
+    // The value for the player to move of playing cell
+    int valueOf(Game game, int cell) {
+        game.makeMove(cell);
+        int value = -value(game);
+        game.undoMove();
+        return value;
+    }
+
+    // A random position of the given size with at most maxEmpty empty cells
+    // that is not over
+    static Game randomPosition(Random random, int size, int maxEmpty) {
+        while (true) {
+            Game game = new GameImpl(size);
+            int[] moves = new int[size * size];
+            int count = game.getMoves(moves);
+            while (!game.isOver() && count > maxEmpty) {
+                game.makeMove(moves[random.nextInt(count)]);
+                count = game.getMoves(moves);
+            }
+            if (!game.isOver()) return game;
+        }
+    }
+}
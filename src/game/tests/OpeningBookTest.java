@@ -0,0 +1,102 @@
+package game.tests;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import ai.*;
+import game.*;
+
+public class OpeningBookTest extends Test {
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("book", ".bin");
+        try {
+            run(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        checkAllTestsPassed();
+    }
+
+    private static void run(Path file) throws IOException {
+        /* ---------- a generated book answers a position and its images ---------- */
+        OpeningBookGenerator generator = new OpeningBookGenerator(4, 2, 2, 0, 1);
+        generator.generate(file);
+        OpeningBook book = OpeningBook.open(file);
+        expect(4, book.getSize());
+        expect(generator.getCount(), book.getCount());
+        expect(true, book.lookup(new GameImpl(4)) != null);
+
+        // (0,0) then (0,1) is not preserved by any symmetry but the identity,
+        // so each image has exactly one book move: the image of the original's
+        int[] played = {0, 1};
+        Move move = book.lookup(play(4, played, 0));
+        expect(true, move != null);
+        int cell = move.getRow() * 4 + move.getCol();
+        boolean images = true;
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            Move image = book.lookup(play(4, played, s));
+            images &= image != null && image.getRow() * 4 + image.getCol() == Symmetry.apply(s, cell, 4);
+        }
+        expect(true, images);
+        // Three stones is past the book
+        expect(true, book.lookup(play(4, new int[] {0, 1, 2}, 0)) == null);
+        // So is another board size
+        expect(true, book.lookup(new GameImpl(5)) == null);
+
+        /* ---------- a move on an occupied cell is never returned ---------- */
+        // As after a hash collision: the entry for (1,1) then (2,2) holds (1,1)
+        Game game = play(4, new int[] {5, 10}, 0);
+        int symmetry = Symmetry.canonical(game);
+        long hash = game.hash(symmetry);
+        OpeningBook.write(file, 4, new long[] {hash}, new int[] {Symmetry.apply(symmetry, 5, 4)}, new int[] {3}, 1);
+        book = OpeningBook.open(file);
+        expect(Symmetry.apply(symmetry, 5, 4), book.lookup(hash));
+        expect(3, book.depth(hash));
+        expect(true, book.lookup(game) == null);
+        expect(-1, book.lookup(hash + 1));
+        expect(-1, book.depth(hash + 1));
+
+        /* ---------- bad books are rejected ---------- */
+        boolean caught = false;
+        try {
+            OpeningBook.write(file, 4, new long[] {7, 7}, new int[] {0, 1}, new int[] {1, 1}, 2);
+        } catch (IllegalArgumentException e) {
+            caught = true;
+        }
+        expect(true, caught);
+
+        OpeningBook.write(file, 4, new long[] {hash}, new int[] {0}, new int[] {1}, 1);
+        byte[] bytes = Files.readAllBytes(file);
+        // Version 1 in place of 2
+        ByteBuffer.wrap(bytes).putInt(4, 1);
+        Files.write(file, bytes);
+        expect(true, rejected(file));
+        // A file that is not a book at all
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        expect(true, rejected(file));
+        // A book cut short
+        OpeningBook.write(file, 4, new long[] {hash}, new int[] {0}, new int[] {1}, 1);
+        bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        expect(true, rejected(file));
+    }
+
+    // A game on a board of the given size after the cells played, each mapped by symmetry
+    private static Game play(int size, int[] cells, int symmetry) {
+        Game game = new GameImpl(size);
+        for (int cell : cells) game.makeMove(Symmetry.apply(symmetry, cell, size));
+        return game;
+    }
+
+    private static boolean rejected(Path file) throws IOException {
+        try {
+            OpeningBook.open(file);
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+}
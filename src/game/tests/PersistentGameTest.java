@@ -0,0 +1,107 @@
+package game.tests;
+
+import java.util.Random;
+
+import game.*;
+
+public class PersistentGameTest extends Test {
+    public static void main(String[] args) {
+        /* ---------- plays exactly like GameImpl ---------- */
+        Random random = new Random(7);
+        int[] buffer = new int[121];
+        int[] other = new int[121];
+        boolean same = true;
+        for (int round = 0; round < 200; round++) {
+            int size = 1 + random.nextInt(11);
+            Game reference = new GameImpl(size);
+            Game persistent = new PersistentGameImpl(size);
+            while (!reference.isOver()) {
+                int count = reference.getMoves(buffer);
+                int cell = buffer[random.nextInt(count)];
+                reference.makeMove(cell);
+                persistent.makeMove(cell);
+                same &= matches(reference, persistent, buffer, other);
+                if (random.nextInt(4) == 0) {
+                    reference.undoMove();
+                    persistent.undoMove();
+                    same &= matches(reference, persistent, buffer, other);
+                }
+            }
+        }
+        expect(true, same);
+
+        /* ---------- copies branch without affecting each other ---------- */
+        Game g = new PersistentGameImpl(3);
+        g.makeMove(new MoveImpl(1, 1));  // W
+        Game branch = g.copy();
+        branch.makeMove(new MoveImpl(0, 0));  // B
+        expect(PieceColour.NONE, g.getPiece(0, 0));
+        expect(PieceColour.BLACK, g.currentPlayer());
+        expect(PieceColour.BLACK, branch.getPiece(0, 0));
+        expect(PieceColour.WHITE, branch.currentPlayer());
+        g.makeMove(new MoveImpl(2, 2));  // B
+        expect(PieceColour.NONE, branch.getPiece(2, 2));
+
+        /* ---------- a copy can undo moves made before it was taken ---------- */
+        Game back = g.copy();
+        back.undoMove();
+        back.undoMove();
+        expect(new PersistentGameImpl(3).hash(), back.hash());
+        expect(PieceColour.WHITE, g.getPiece(1, 1));
+        boolean caught = false;
+        try { back.undoMove(); } catch (IllegalStateException e) { caught = true; }
+        expect(true, caught);
+
+        /* ---------- a win on one branch is not seen on the other ---------- */
+        Game w = new PersistentGameImpl(3);
+        w.makeMove(0);  // W
+        w.makeMove(3);  // B
+        w.makeMove(1);  // W
+        w.makeMove(4);  // B
+        Game win = w.copy();
+        win.makeMove(2);  // W completes the top row
+        expect(true, win.isOver());
+        expect(PieceColour.WHITE, win.winner());
+        expect(false, w.isOver());
+        w.makeMove(8);  // W elsewhere
+        expect(false, w.isOver());
+        win.undoMove();
+        expect(false, win.isOver());
+        expect(PieceColour.WHITE, win.currentPlayer());
+
+        /* ---------- views are snapshots ---------- */
+        Grid view = w.view();
+        w.makeMove(5);  // B completes the middle row
+        expect(PieceColour.NONE, view.getPiece(1, 2));
+        expect(PieceColour.BLACK, w.getPiece(1, 2));
+        expect(PieceColour.BLACK, w.winner());
+        caught = false;
+        try { view.setPiece(0, 0, PieceColour.BLACK); } catch (UnsupportedOperationException e) { caught = true; }
+        expect(true, caught);
+
+        /* ---------- invalid moves ---------- */
+        Game i = new PersistentGameImpl(2);
+        i.makeMove(0);
+        caught = false;
+        try { i.makeMove(0); } catch (IllegalArgumentException e) { caught = true; }
+        expect(true, caught);
+        caught = false;
+        try { i.makeMove(new MoveImpl(2, 0)); } catch (IllegalArgumentException e) { caught = true; }
+        expect(true, caught);
+
+        checkAllTestsPassed();
+    }
+
+    private static boolean matches(Game a, Game b, int[] movesA, int[] movesB) {
+        if (a.isOver() != b.isOver() || a.winner() != b.winner()) return false;
+        if (!a.isOver() && a.currentPlayer() != b.currentPlayer()) return false;
+        for (int s = 0; s < Symmetry.COUNT; s++)
+            if (a.hash(s) != b.hash(s)) return false;
+        int count = a.getMoves(movesA);
+        if (count != b.getMoves(movesB) || count != b.getMoves().size()) return false;
+        for (int i = 0; i < count; i++)
+            if (movesA[i] != movesB[i]) return false;
+        return a.getGrid().toString().equals(b.getGrid().toString())
+                && a.getGrid().toString().equals(b.view().toString());
+    }
+}
@@ -0,0 +1,85 @@
+package game.tests;
+
+import java.util.Random;
+
+import ai.*;
+import game.*;
+
+public class PondererTest extends Test {
+    public static void main(String[] args) throws InterruptedException {
+        /* ---------- a pondered reply is answered like a direct search ---------- */
+        Random random = new Random(23);
+        boolean hits = true, same = true;
+        for (int i = 0; i < 20; i++) {
+            Game game = Negamax.randomPosition(random, 5, 12 + random.nextInt(8));
+            Ponderer ponderer = new Ponderer(newEngine(3), 1);
+            ponderer.ponder(game);
+            // The likely reply is what the engine would play in the opponent's place
+            Move reply = newEngine(3).getCurrentPlayerMove(game);
+            long deadline = System.nanoTime() + 30_000_000_000L;
+            while (ponderer.getPonderedCount() == 0 && System.nanoTime() < deadline) Thread.sleep(1);
+            game.makeMove(reply);
+            if (game.isOver()) continue;
+            Move move = ponderer.getCurrentPlayerMove(game);
+            hits &= ponderer.wasPonderHit();
+            // An engine with the same history: the opponent's position, then the reply
+            Minimax engine = newEngine(3);
+            game.undoMove();
+            engine.getCurrentPlayerMove(game);
+            game.makeMove(reply);
+            Move direct = engine.getCurrentPlayerMove(game);
+            same &= move.getRow() == direct.getRow() && move.getCol() == direct.getCol();
+        }
+        expect(true, hits);
+        expect(true, same);
+
+        /* ---------- another reply is searched as usual ---------- */
+        Game game = new GameImpl(4);
+        game.makeMove(5);
+        Ponderer ponderer = new Ponderer(newEngine(3), 1);
+        ponderer.ponder(game);
+        Move likely = newEngine(3).getCurrentPlayerMove(game);
+        int[] moves = new int[16];
+        int count = game.getMoves(moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] != likely.getRow() * 4 + likely.getCol()) {
+                game.makeMove(moves[i]);
+                break;
+            }
+        }
+        Move move = ponderer.getCurrentPlayerMove(game);
+        expect(false, ponderer.wasPonderHit());
+        expect(PieceColour.NONE, game.getPiece(move.getRow(), move.getCol()));
+        expect(0, ponderedThreads());
+
+        /* ---------- stop() is prompt and leaves no thread behind ---------- */
+        // A search far too deep to finish is under way when stop() is called
+        ponderer = new Ponderer(newEngine(30));
+        ponderer.ponder(new GameImpl(7));
+        Thread.sleep(200);
+        expect(1, ponderedThreads());
+        long start = System.nanoTime();
+        ponderer.stop();
+        expect(true, System.nanoTime() - start < 500_000_000L);
+        expect(0, ponderedThreads());
+        // Stopping again, or pondering a finished game, starts nothing
+        ponderer.stop();
+        Game over = new GameImpl(1);
+        over.makeMove(0);
+        ponderer.ponder(over);
+        expect(0, ponderedThreads());
+        checkAllTestsPassed();
+    }
+
+    private static Minimax newEngine(int depth) {
+        return new Minimax(depth, new MinPiecesHeuristic(), new TranspositionTable(1 << 16));
+    }
+
+    // The number of live pondering threads
+    private static int ponderedThreads() {
+        int count = 0;
+        for (Thread t : Thread.getAllStackTraces().keySet())
+            if (t.getName().equals("ponderer") && t.isAlive()) count++;
+        return count;
+    }
+}
@@ -0,0 +1,68 @@
+package game.tests;
+
+import game.*;
+
+public class PrimitiveMoveTest extends Test {
+    public static void main(String[] args) {
+        /* ---------- getMoves(int[]) lists empty cells in order ---------- */
+        Game g = new GameImpl(3);
+        int[] buffer = new int[9];
+        expect(9, g.getMoves(buffer));
+        expect(8, buffer[8]);
+        g.makeMove(4);                   // W (1,1)
+        g.makeMove(new MoveImpl(0, 2));  // B
+        expect(PieceColour.WHITE, g.getPiece(1, 1));
+        expect(PieceColour.WHITE, g.currentPlayer());
+        int count = g.getMoves(buffer);
+        expect(7, count);
+        expect("0 1 3 5 6 7 8", join(buffer, count));
+        expect(count, g.getMoves().size());
+
+        /* ---------- the two makeMove forms agree ---------- */
+        Game a = new GameImpl(4), b = new GameImpl(4);
+        a.makeMove(new MoveImpl(2, 3));
+        b.makeMove(2 * 4 + 3);
+        expect(a.hash(), b.hash());
+        expect(a.currentPlayer(), b.currentPlayer());
+
+        /* ---------- invalid cells ---------- */
+        boolean caught = false;
+        try { b.makeMove(11); } catch (IllegalArgumentException e) { caught = true; }
+        expect(true, caught);
+        caught = false;
+        try { b.makeMove(16); } catch (IllegalArgumentException e) { caught = true; }
+        expect(true, caught);
+        caught = false;
+        try { b.makeMove(-1); } catch (IllegalArgumentException e) { caught = true; }
+        expect(true, caught);
+
+        /* ---------- boards larger than one 64-bit word ---------- */
+        Game big = new GameImpl(11);
+        int[] cells = new int[121];
+        big.makeMove(0);
+        big.makeMove(64);
+        big.makeMove(120);
+        count = big.getMoves(cells);
+        expect(118, count);
+        expect(1, cells[0]);
+        expect(65, cells[63]);
+        expect(119, cells[117]);
+
+        /* ---------- getMoves() reuses the same Move instances ---------- */
+        Game f = new GameImpl(3);
+        Move first = f.getMoves().iterator().next();
+        expect(true, first == f.getMoves().iterator().next());
+        expect(new MoveImpl(0, 0), first);
+
+        checkAllTestsPassed();
+    }
+
+    private static String join(int[] values, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(values[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package game.tests;
+
+import java.util.Random;
+
+import ai.*;
+import game.*;
+
+public class ProofNumberSearchTest extends Test {
+    public static void main(String[] args) {
+        /* ---------- results and best moves match exhaustive negamax ---------- */
+        Random random = new Random(16);
+        ProofNumberSearch solver = new ProofNumberSearch(10_000_000);
+        boolean results = true, moves = true;
+        int positions = 1000;
+        for (int i = 0; i < positions; i++) {
+            int size = 3 + random.nextInt(3);
+            Game game = Negamax.randomPosition(random, size, 4 + random.nextInt(6));
+            Negamax negamax = new Negamax();
+            int value = negamax.value(game);
+            ProofNumberSearch.Result result = solver.solve(game);
+            results &= result == (value > 0 ? ProofNumberSearch.Result.WIN
+                    : value == 0 ? ProofNumberSearch.Result.DRAW : ProofNumberSearch.Result.LOSS);
+            // The best move must achieve the result, and there is none after a loss
+            Move best = solver.getBestMove();
+            if (value < 0) moves &= best == null;
+            else moves &= best != null && game.getPiece(best.getRow(), best.getCol()) == PieceColour.NONE
+                    && negamax.valueOf(game, best.getRow() * size + best.getCol()) == value;
+        }
+        expect(true, results);
+        expect(true, moves);
+
+        /* ---------- a table far too small for the search still proves ---------- */
+        // Nodes and their children often share a slot here, so a parent's
+        // entry keeps overwriting the child it just searched
+        ProofNumberSearch small = new ProofNumberSearch(256, 2_000_000);
+        random = new Random(160);
+        results = true;
+        for (int i = 0; i < 300; i++) {
+            int size = 3 + random.nextInt(3);
+            Game game = Negamax.randomPosition(random, size, 4 + random.nextInt(6));
+            int value = new Negamax().value(game);
+            results &= small.solve(game) == (value > 0 ? ProofNumberSearch.Result.WIN
+                    : value == 0 ? ProofNumberSearch.Result.DRAW : ProofNumberSearch.Result.LOSS);
+        }
+        expect(true, results);
+        // BW.. / .W.B / .BW. / ..W. with black to move
+        Game game = new GameImpl(4);
+        for (int cell : new int[] {1, 0, 5, 7, 10, 9, 14}) game.makeMove(cell);
+        expect(PieceColour.BLACK, game.currentPlayer());
+        expect(0, new Negamax().value(game));
+        expect(ProofNumberSearch.Result.DRAW, new ProofNumberSearch(1 << 12, 2_000_000).solve(game));
+        expect(ProofNumberSearch.Result.DRAW, new ProofNumberSearch(256, 2_000_000).solve(game));
+
+        /* ---------- a finished game is not solved ---------- */
+        Game over = new GameImpl(1);
+        over.makeMove(0);
+        expect(ProofNumberSearch.Result.UNKNOWN, solver.solve(over));
+
+        checkAllTestsPassed();
+    }
+}
@@ -0,0 +1,78 @@
+package game.tests;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import game.*;
+
+public class SymmetryTest extends Test {
+    public static void main(String[] args) {
+        /* ---------- cell maps ---------- */
+        int n = 4;
+        expect(1 * n + 2, Symmetry.apply(0, 1 * n + 2, n));
+        expect(2 * n + 2, Symmetry.apply(1, 1 * n + 2, n));          // mirror rows
+        expect(1 * n + 1, Symmetry.apply(2, 1 * n + 2, n));          // mirror columns
+        expect(2 * n + 1, Symmetry.apply(4, 1 * n + 2, n));          // transpose
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            boolean ok = true;
+            for (int cell = 0; cell < n * n; cell++)
+                if (Symmetry.apply(Symmetry.inverse(s), Symmetry.apply(s, cell, n), n) != cell) ok = false;
+            expect(true, ok);
+        }
+
+        /* ---------- incremental hashes match a full recomputation ---------- */
+        Random random = new Random(1);
+        Game g = new GameImpl(5);
+        boolean match = true;
+        for (int step = 0; step < 200; step++) {
+            if (!g.isOver() && (step % 3 != 2 || g.getMoves().size() == 25)) {
+                var moves = new ArrayList<>(g.getMoves());
+                g.makeMove(moves.get(random.nextInt(moves.size())));
+            } else {
+                g.undoMove();
+            }
+            Grid grid = g.getGrid();
+            for (int s = 0; s < Symmetry.COUNT; s++)
+                if (g.hash(s) != Symmetry.hash(grid, g.currentPlayer(), s)) match = false;
+        }
+        expect(true, match);
+
+        /* ---------- symmetric positions share a canonical hash ---------- */
+        Game a = new GameImpl(5);
+        a.makeMove(new MoveImpl(0, 1)); // W
+        a.makeMove(new MoveImpl(3, 3)); // B
+        Game b = new GameImpl(5);
+        b.makeMove(new MoveImpl(1, 4)); // W, rotated
+        b.makeMove(new MoveImpl(3, 1)); // B, rotated
+        expect(Symmetry.canonicalHash(a), Symmetry.canonicalHash(b));
+        expect(false, a.hash() == b.hash());
+
+        /* ---------- the same stones with the other player to move differ ---------- */
+        Game c = new GameImpl(5);
+        c.makeMove(new MoveImpl(2, 2)); // W
+        c.makeMove(new MoveImpl(0, 0)); // B
+        c.makeMove(new MoveImpl(4, 4)); // W
+        Game d = new GameImpl(5);
+        d.makeMove(new MoveImpl(4, 4)); // W
+        d.makeMove(new MoveImpl(0, 0)); // B
+        d.makeMove(new MoveImpl(2, 2)); // W
+        expect(c.hash(), d.hash());
+        expect(false, Symmetry.canonicalHash(c) == Symmetry.canonicalHash(a));
+
+        /* ---------- canonical grid and preserved positions ---------- */
+        Game e = new GameImpl(5);
+        expect(true, Symmetry.preserves(e, 5));
+        e.makeMove(new MoveImpl(2, 2));
+        for (int s = 0; s < Symmetry.COUNT; s++) expect(true, Symmetry.preserves(e, s));
+        e.makeMove(new MoveImpl(0, 0));
+        expect(true, Symmetry.preserves(e, 4));
+        expect(false, Symmetry.preserves(e, 1));
+        Grid grid = a.getGrid();
+        int s = Symmetry.canonical(grid, a.currentPlayer());
+        expect(s, Symmetry.canonical(a));
+        Grid canonical = Symmetry.transform(grid, s);
+        expect(Symmetry.canonicalHash(a), Symmetry.hash(canonical, a.currentPlayer(), 0));
+
+        checkAllTestsPassed();
+    }
+}
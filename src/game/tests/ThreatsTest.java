@@ -0,0 +1,104 @@
+package game.tests;
+
+import java.util.Random;
+
+import ai.*;
+import game.*;
+
+public class ThreatsTest extends Test {
+    public static void main(String[] args) {
+        /* ---------- the must-play region against exhaustive negamax ---------- */
+        Random random = new Random(22);
+        boolean wins = true, winMoves = true, blocks = true, blockMoves = true, stops = true;
+        boolean unchanged = true, value = true;
+        int winsSeen = 0, blocksSeen = 0;
+        for (int i = 0; i < 1000; i++) {
+            int size = 2 + random.nextInt(5);
+            // At least two empty cells, so the opponent's wins can be tried
+            // after some other move
+            Game game = Negamax.randomPosition(random, size, 3 + random.nextInt(7));
+            Negamax negamax = new Negamax();
+            Threats threats = new Threats(size);
+            int[] moves = new int[size * size];
+            int count = game.getMoves(moves);
+            int[] all = moves.clone();
+            int kept = threats.restrict(game, moves, count);
+
+            boolean canWin = false;
+            for (int m = 0; m < count; m++) canWin |= winsWith(game, all[m]);
+            wins &= threats.win() == canWin;
+            if (canWin) {
+                winsSeen++;
+                // Exactly the winning moves are kept
+                for (int m = 0; m < count; m++)
+                    winMoves &= contains(moves, kept, all[m]) == winsWith(game, all[m]);
+            } else {
+                boolean[] threat = new boolean[count];
+                int threatCount = 0;
+                for (int m = 0; m < count; m++)
+                    if (threat[m] = opponentWinsWith(game, all[m])) threatCount++;
+                blocks &= threats.block() == (threatCount > 0);
+                if (threatCount == 0) {
+                    unchanged &= kept == count;
+                } else {
+                    blocksSeen++;
+                    // Exactly the cells the opponent would win with are kept
+                    for (int m = 0; m < count; m++)
+                        blockMoves &= contains(moves, kept, all[m]) == threat[m];
+                }
+                // A single threat is stopped by taking its cell
+                if (threatCount == 1) {
+                    game.makeMove(moves[0]);
+                    int[] replies = new int[size * size];
+                    int n = game.isOver() ? 0 : game.getMoves(replies);
+                    for (int r = 0; r < n; r++) stops &= !winsWith(game, replies[r]);
+                    game.undoMove();
+                }
+            }
+            // No non-losing move is ever left out
+            int best = -1;
+            for (int m = 0; m < kept; m++) best = Math.max(best, negamax.valueOf(game, moves[m]));
+            value &= best == negamax.value(game);
+        }
+        expect(true, wins);
+        expect(true, winMoves);
+        expect(true, blocks);
+        expect(true, blockMoves);
+        expect(true, stops);
+        expect(true, unchanged);
+        expect(true, value);
+        // The checks mean nothing unless both kinds of threat come up
+        expect(true, winsSeen > 0);
+        expect(true, blocksSeen > 0);
+
+        checkAllTestsPassed();
+    }
+
+    // True if playing cell ends the game with a win for the player to move
+    private static boolean winsWith(Game game, int cell) {
+        PieceColour player = game.currentPlayer();
+        game.makeMove(cell);
+        boolean won = game.isOver() && game.winner() == player;
+        game.undoMove();
+        return won;
+    }
+
+    // True if the opponent of the player to move would win by playing cell
+    // The player to move first plays some other cell, which cannot help the
+    // opponent; they must not be able to win at once themselves
+    private static boolean opponentWinsWith(Game game, int cell) {
+        int[] moves = new int[game.getSize() * game.getSize()];
+        int count = game.getMoves(moves);
+        int other = moves[0] == cell ? moves[1] : moves[0];
+        game.makeMove(other);
+        boolean won = winsWith(game, cell);
+        game.undoMove();
+        return won;
+    }
+
+    private static boolean contains(int[] moves, int count, int cell) {
+        for (int i = 0; i < count; i++)
+            if (moves[i] == cell) return true;
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+package game.tests;
+
+import ai.*;
+
+public class TournamentTest extends Test {
+    public static void main(String[] args) {
+        /* ---------- engine specifications ---------- */
+        expect(true, Tournament.parseEngine("minimax:3").get() instanceof Minimax);
+        expect(true, Tournament.parseEngine("minimax:4:incremental:50ms:lmr").get() instanceof Minimax);
+        expect(true, Tournament.parseEngine("mcts:100").get() instanceof MCTS);
+        // Every call builds a new instance
+        var factory = Tournament.parseEngine("mcts:100");
+        expect(true, factory.get() != factory.get());
+        for (String spec : new String[] {"minimax", "minimax:x", "minimax:3:bogus", "minimax:3:fastms",
+                "mcts", "mcts:many", "alphazero:1", ""}) {
+            boolean caught = false;
+            try {
+                Tournament.parseEngine(spec);
+            } catch (IllegalArgumentException e) {
+                caught = true;
+            }
+            expect(true, caught);
+        }
+
+        /* ---------- Elo and its error at the edges ---------- */
+        // All draws: the score is exactly even
+        Tournament.Result draws = new Tournament.Result(0, 20, 0, 0, 1);
+        expect(0.0, draws.elo());
+        expect(0.0, draws.eloError());
+        // A sweep has no finite bound either way
+        expect(Double.POSITIVE_INFINITY, new Tournament.Result(20, 0, 0, 0, 1).eloError());
+        expect(Double.POSITIVE_INFINITY, new Tournament.Result(0, 0, 20, 0, 1).eloError());
+        // A near-sweep gets a finite bound, in each direction
+        Tournament.Result nearSweep = new Tournament.Result(19, 1, 0, 0, 1);
+        expect(true, nearSweep.elo() > 0 && Double.isFinite(nearSweep.eloError()) && nearSweep.eloError() > 0);
+        Tournament.Result nearLoss = new Tournament.Result(1, 0, 9, 0, 1);
+        expect(true, nearLoss.elo() < 0 && Double.isFinite(nearLoss.eloError()) && nearLoss.eloError() > 0);
+        // An even split of 100 games is within about 68 Elo
+        expect(true, Math.abs(new Tournament.Result(50, 0, 50, 0, 1).eloError() - 67.7) < 0.1);
+
+        /* ---------- results do not depend on the number of threads ---------- */
+        Tournament tournament = new Tournament(Tournament.parseEngine("minimax:2"),
+                Tournament.parseEngine("minimax:3:pvs"), 4);
+        Tournament.Result one = tournament.play(16, 1);
+        Tournament.Result four = tournament.play(16, 4);
+        expect(16, one.games());
+        expect(one.wins, four.wins);
+        expect(one.draws, four.draws);
+        expect(one.moves, four.moves);
+
+        checkAllTestsPassed();
+    }
+}
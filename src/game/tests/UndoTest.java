@@ -0,0 +1,64 @@
+package game.tests;
+
+import game.*;
+
+public class UndoTest extends Test {
+    public static void main(String[] args) {
+        /* ---------- undo on a fresh game ---------- */
+        Game g = new GameImpl(3);
+        boolean caught = false;
+        try { g.undoMove(); } catch (IllegalStateException e) { caught = true; }
+        expect(true, caught);
+
+        /* ---------- undo restores grid and turn ---------- */
+        g.makeMove(new MoveImpl(1,1)); // W
+        g.makeMove(new MoveImpl(0,0)); // B
+        g.undoMove();
+        expect(PieceColour.BLACK, g.currentPlayer());
+        expect(PieceColour.NONE, g.getGrid().getPiece(0,0));
+        expect(PieceColour.WHITE, g.getGrid().getPiece(1,1));
+        expect(8, g.getMoves().size());
+        g.undoMove();
+        expect(PieceColour.WHITE, g.currentPlayer());
+        expect(9, g.getMoves().size());
+
+        /* ---------- undo a winning move ---------- */
+        Game h = new GameImpl(3);
+        h.makeMove(new MoveImpl(0,0)); // W
+        h.makeMove(new MoveImpl(1,0)); // B
+        h.makeMove(new MoveImpl(0,1)); // W
+        h.makeMove(new MoveImpl(1,1)); // B
+        h.makeMove(new MoveImpl(0,2)); // W -> menang
+        expect(true, h.isOver());
+        h.undoMove();
+        expect(false, h.isOver());
+        expect(PieceColour.NONE, h.winner());
+        expect(PieceColour.WHITE, h.currentPlayer());
+        h.makeMove(new MoveImpl(2,2)); // W, bukan menang
+        expect(false, h.isOver());
+        h.makeMove(new MoveImpl(1,2)); // B -> menang
+        expect(true, h.isOver());
+        expect(PieceColour.BLACK, h.winner());
+
+        /* ---------- undo a full-board draw ---------- */
+        Game d = new GameImpl(2);
+        d.makeMove(new MoveImpl(0,0)); // W
+        d.makeMove(new MoveImpl(0,1)); // B
+        d.makeMove(new MoveImpl(1,1)); // W
+        d.makeMove(new MoveImpl(1,0)); // B – penuh
+        expect(true, d.isOver());
+        d.undoMove();
+        expect(false, d.isOver());
+        expect(PieceColour.BLACK, d.currentPlayer());
+
+        /* ---------- copy() carries the move history ---------- */
+        Game original = new GameImpl(3);
+        original.makeMove(new MoveImpl(2,2)); // W
+        Game clone = original.copy();
+        clone.undoMove();
+        expect(PieceColour.NONE, clone.getGrid().getPiece(2,2));
+        expect(PieceColour.WHITE, original.getGrid().getPiece(2,2));
+
+        checkAllTestsPassed();
+    }
+}
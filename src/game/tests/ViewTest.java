@@ -0,0 +1,60 @@
+package game.tests;
+
+import java.util.ConcurrentModificationException;
+
+import game.*;
+
+public class ViewTest extends Test {
+    public static void main(String[] args) {
+        /* ---------- the view reads the live board ---------- */
+        Game g = new GameImpl(3);
+        g.makeMove(new MoveImpl(1, 1));  // W
+        Grid view = g.view();
+        expect(3, view.getSize());
+        expect(PieceColour.WHITE, view.getPiece(1, 1));
+        expect(PieceColour.NONE, view.getPiece(0, 0));
+        expect(g.getGrid().toString(), view.toString());
+
+        /* ---------- repeated calls return the same view ---------- */
+        expect(true, view == g.view());
+
+        /* ---------- the view cannot change the game ---------- */
+        boolean caught = false;
+        try { view.setPiece(0, 0, PieceColour.BLACK); } catch (UnsupportedOperationException e) { caught = true; }
+        expect(true, caught);
+        expect(PieceColour.NONE, g.getPiece(0, 0));
+
+        /* ---------- copies of the view are independent snapshots ---------- */
+        Grid snapshot = view.copy();
+        snapshot.setPiece(0, 0, PieceColour.BLACK);
+        expect(PieceColour.NONE, g.getPiece(0, 0));
+
+        /* ---------- a move makes old views stale ---------- */
+        g.makeMove(new MoveImpl(0, 0));  // B
+        caught = false;
+        try { view.getPiece(1, 1); } catch (ConcurrentModificationException e) { caught = true; }
+        expect(true, caught);
+        caught = false;
+        try { view.toString(); } catch (ConcurrentModificationException e) { caught = true; }
+        expect(true, caught);
+        expect(PieceColour.WHITE, snapshot.getPiece(1, 1));
+        expect(PieceColour.BLACK, g.view().getPiece(0, 0));
+        expect(false, view == g.view());
+
+        /* ---------- so does an undo ---------- */
+        Grid before = g.view();
+        g.undoMove();
+        caught = false;
+        try { before.getPiece(0, 0); } catch (ConcurrentModificationException e) { caught = true; }
+        expect(true, caught);
+        expect(PieceColour.NONE, g.view().getPiece(0, 0));
+
+        /* ---------- views of a copy follow the copy ---------- */
+        Game c = g.copy();
+        Grid copyView = c.view();
+        g.makeMove(new MoveImpl(2, 2));
+        expect(PieceColour.NONE, copyView.getPiece(2, 2));
+
+        checkAllTestsPassed();
+    }
+}